@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActivityEventQueue takes gamification activities (borrow, return, review...) off the
+ * circulation path. Callers enqueue an event and return at once; a background worker drains
+ * the queue and applies the events in batches, one transaction per batch.
+ *
+ * The queue is bounded. When it is full, a caller waits briefly for the worker and then
+ * applies its own event directly, so a backlog slows circulation down instead of growing
+ * without limit or losing events. {@link #close()} applies everything still queued.
+ */
+public class ActivityEventQueue {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final int MAX_BATCH_SIZE = 500;          // Events applied per transaction
+    private static final long OFFER_TIMEOUT_MS = 50;        // Wait for space before applying inline
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;   // Wait for the worker to drain on close
+    private static final long POLL_INTERVAL_MS = 200;       // How often an idle worker checks for close
+
+    private final GamificationSystem gamificationSystem;
+    private final BlockingQueue<Event> queue;
+    private final Thread worker;
+    private final Object progress = new Object(); // Signals flush() when events have been applied
+    private long submitted; // Guarded by progress
+    private long applied;   // Guarded by progress
+    private volatile boolean closed;
+
+    /**
+     * Creates the queue and starts its worker thread
+     * @param gamificationSystem The system the events are applied to
+     * @param capacity Maximum number of events waiting to be applied
+     */
+    public ActivityEventQueue(GamificationSystem gamificationSystem, int capacity) {
+        this.gamificationSystem = gamificationSystem;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::drainLoop, "gamification-events");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues an activity for a student
+     * @param studentId Student ID
+     * @param activityType Type of activity (one of the GamificationSystem.ACHIEVEMENT_* types)
+     */
+    public void submit(int studentId, String activityType) {
+        Event event = new Event(studentId, activityType);
+        synchronized (progress) {
+            submitted++;
+        }
+
+        boolean queued = false;
+        if (!closed) {
+            try {
+                queued = queue.offer(event, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Backpressure: the worker is behind (or stopped), so the caller does the work itself
+        if (!queued) {
+            List<Event> inline = new ArrayList<>();
+            inline.add(event);
+            apply(inline);
+        }
+    }
+
+    /**
+     * Waits until every event submitted so far has been applied
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue was drained, false if the wait timed out or was interrupted
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            long target = submitted;
+            while (applied < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Applies the queued events and stops the worker. Events submitted afterwards are applied
+     * by the caller directly.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Events that raced with close() are applied here rather than left behind
+        List<Event> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            apply(remaining);
+        }
+    }
+
+    /**
+     * Gets the number of events waiting for the worker
+     * @return The queue length
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Worker loop: waits for an event, then applies it together with whatever else is queued.
+     * Exits once the queue is closed and empty.
+     */
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            Event first;
+            try {
+                first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies a batch and records the progress, even if the batch failed (it has been logged)
+     */
+    private void apply(List<Event> batch) {
+        try {
+            gamificationSystem.trackActivities(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Error applying gamification events: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            synchronized (progress) {
+                applied += batch.size();
+                progress.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * One activity of one student
+     */
+    public static class Event {
+        private final int studentId;
+        private final String activityType;
+
+        public Event(int studentId, String activityType) {
+            this.studentId = studentId;
+            this.activityType = activityType;
+        }
+
+        public int getStudentId() {
+            return studentId;
+        }
+
+        public String getActivityType() {
+            return activityType;
+        }
+    }
+}
@@ -10,14 +10,18 @@ public class Book {
     private String title;      // Title of the book
     private String author;     // Author of the book
     private String isbn;       // ISBN number (unique identifier)
-    private boolean isAvailable;  // Whether the book is available for borrowing
-    private String borrowerName;  // Name of the person who borrowed the book (null if available)
-    private String borrowerUID;   // UID of the student who borrowed the book (null if available)
     private int publicationYear;  // Year the book was published
     private String category;      // Category/genre of the book
-    private double rating;        // Rating of the book (0-5 scale)
-    private int ratingCount;      // Number of ratings
-    private LocalDate dueDate;    // Due date for borrowed books
+    
+    // Circulation and rating state. Library changes it under the book's lock; the fields are
+    // volatile so other threads read the latest values without locking.
+    private volatile boolean isAvailable;  // Whether the book is available for borrowing
+    private volatile String borrowerName;  // Name of the person who borrowed the book (null if available)
+    private volatile String borrowerUID;   // UID of the student who borrowed the book (null if available)
+    private volatile double rating;        // Rating of the book (0-5 scale)
+    private volatile int ratingCount;      // Number of ratings
+    private volatile double totalRating;   // Sum of all ratings (kept so the average does not drift)
+    private volatile LocalDate dueDate;    // Due date for borrowed books
 
     /**
      * Constructor to create a new book
@@ -36,6 +40,7 @@ public class Book {
         this.category = "Uncategorized";  // Default category
         this.rating = 0.0;          // No ratings initially
         this.ratingCount = 0;       // No ratings initially
+        this.totalRating = 0.0;     // No ratings initially
     }
     
     /**
@@ -56,6 +61,7 @@ public class Book {
         this.category = "Uncategorized";
         this.rating = 0.0;
         this.ratingCount = 0;
+        this.totalRating = 0.0;
     }
     
     /**
@@ -77,6 +83,7 @@ public class Book {
         this.category = category;
         this.rating = 0.0;
         this.ratingCount = 0;
+        this.totalRating = 0.0;
     }
 
     /**
@@ -97,6 +104,7 @@ public class Book {
         this.publicationYear = 2023; // Default to current year for new books
         this.rating = 0.0;
         this.ratingCount = 0;
+        this.totalRating = 0.0;
     }
     
     /**
@@ -117,6 +125,7 @@ public class Book {
         this.category = category;
         this.rating = rating;
         this.ratingCount = rating > 0 ? 1 : 0; // Assume at least one rating if rating > 0
+        this.totalRating = rating * ratingCount;
         this.isAvailable = "Available".equals(status);
         this.borrowerName = null;
         this.borrowerUID = null;
@@ -193,12 +202,30 @@ public class Book {
             return false;
         }
         
-        double totalRating = (rating * ratingCount) + newRating;
+        totalRating += newRating;
         ratingCount++;
         rating = totalRating / ratingCount;
         return true;
     }
     
+    /**
+     * Restores the rating state from stored totals (used when loading books from the database)
+     * @param totalRating The sum of all ratings given to the book
+     * @param ratingCount The number of ratings given to the book
+     */
+    public void restoreRating(double totalRating, int ratingCount) {
+        if (ratingCount <= 0) {
+            this.totalRating = 0.0;
+            this.ratingCount = 0;
+            this.rating = 0.0;
+            return;
+        }
+        
+        this.totalRating = totalRating;
+        this.ratingCount = ratingCount;
+        this.rating = totalRating / ratingCount;
+    }
+    
     /**
      * Gets the current rating of the book
      * @return The rating (0-5 scale)
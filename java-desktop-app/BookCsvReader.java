@@ -0,0 +1,140 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * BookCsvReader streams books from a CSV feed one line at a time, so large vendor files
+ * can be imported without loading them into memory.
+ *
+ * Expected columns: isbn, title, author, publication_year, category. A header line starting
+ * with "isbn" is skipped and fields may be quoted ("" inside quotes is a literal quote).
+ * A line that cannot be parsed is returned as null so the importer can count it as invalid.
+ */
+public class BookCsvReader implements Iterator<Book>, AutoCloseable {
+    private final BufferedReader reader;
+    private String nextLine;
+    private int lineNumber;
+
+    /**
+     * Opens a CSV file for reading
+     * @param path Path of the CSV file
+     * @throws IOException if the file cannot be opened
+     */
+    public BookCsvReader(String path) throws IOException {
+        this.reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+        advance();
+        if (nextLine != null && nextLine.trim().toLowerCase().startsWith("isbn")) {
+            advance();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public Book next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        int currentLine = lineNumber;
+        advance();
+        return parseBook(line, currentLine);
+    }
+
+    /**
+     * Closes the underlying file
+     */
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            System.err.println("Error closing CSV file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the next non-blank line, ending the stream on a read error
+     */
+    private void advance() {
+        try {
+            do {
+                nextLine = reader.readLine();
+                lineNumber++;
+            } while (nextLine != null && nextLine.trim().isEmpty());
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file at line " + lineNumber + ": " + e.getMessage());
+            nextLine = null;
+        }
+    }
+
+    /**
+     * Converts one CSV line into a book
+     * @return The book, or null if the line is malformed
+     */
+    private static Book parseBook(String line, int lineNumber) {
+        List<String> fields = splitFields(line);
+        if (fields == null || fields.size() < 3) {
+            System.err.println("Skipping malformed CSV line " + lineNumber);
+            return null;
+        }
+
+        int year = 0;
+        if (fields.size() > 3 && !fields.get(3).isEmpty()) {
+            try {
+                year = Integer.parseInt(fields.get(3));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid publication year on CSV line " + lineNumber + ": " + fields.get(3));
+            }
+        }
+        String category = fields.size() > 4 && !fields.get(4).isEmpty() ? fields.get(4) : "Uncategorized";
+
+        return new Book(fields.get(1), fields.get(2), fields.get(0), year, category);
+    }
+
+    /**
+     * Splits a CSV line into trimmed fields
+     * @return The fields, or null if a quoted field is not closed
+     */
+    private static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
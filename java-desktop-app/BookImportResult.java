@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BookImportResult summarizes a bulk book import: how many records were read,
+ * how many books were inserted, how many were skipped and how fast it went.
+ */
+public class BookImportResult {
+    private int recordsRead;          // Records taken from the source
+    private int invalidRecords;       // Records without an ISBN, title or author
+    private int rolledBackRecords;    // Valid records of a batch that failed and was rolled back
+    private List<Book> insertedBooks; // Books that were new to the catalog, in source order
+    private long elapsedNanos;        // Wall-clock time of the import
+    private boolean completed;        // false if the import stopped on an error
+
+    /**
+     * Creates an empty result for an import that is about to start
+     */
+    public BookImportResult() {
+        this.insertedBooks = new ArrayList<>();
+        this.completed = true;
+    }
+
+    /**
+     * Records that a record was read from the source
+     * @param valid Whether the record had the fields needed to insert it
+     */
+    public void recordRead(boolean valid) {
+        recordsRead++;
+        if (!valid) {
+            invalidRecords++;
+        }
+    }
+
+    /**
+     * Records a book that was inserted
+     * @param book The inserted book
+     */
+    public void addInserted(Book book) {
+        insertedBooks.add(book);
+    }
+
+    /**
+     * Marks the import as stopped by an error
+     * @param rolledBackRecords Valid records of the failed batch that were not written
+     */
+    public void markFailed(int rolledBackRecords) {
+        this.completed = false;
+        this.rolledBackRecords += rolledBackRecords;
+    }
+
+    /**
+     * Sets how long the import took
+     * @param elapsedNanos Elapsed time in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getRecordsRead() {
+        return recordsRead;
+    }
+
+    public int getInsertedCount() {
+        return insertedBooks.size();
+    }
+
+    public int getInvalidCount() {
+        return invalidRecords;
+    }
+
+    /**
+     * Gets the number of valid records that were not inserted because the ISBN already existed
+     * @return The number of duplicate records
+     */
+    public int getDuplicateCount() {
+        return recordsRead - invalidRecords - rolledBackRecords - insertedBooks.size();
+    }
+
+    public int getRolledBackCount() {
+        return rolledBackRecords;
+    }
+
+    public List<Book> getInsertedBooks() {
+        return insertedBooks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the import throughput
+     * @return Records read per second
+     */
+    public double getRecordsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0.0;
+        }
+        return recordsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format("%s %d records in %d ms (%.0f records/s): %d inserted, %d duplicates, %d invalid",
+            completed ? "Imported" : "Import stopped after", recordsRead, getElapsedMillis(),
+            getRecordsPerSecond(), getInsertedCount(), getDuplicateCount(), invalidRecords);
+        if (rolledBackRecords > 0) {
+            summary += ", " + rolledBackRecords + " rolled back";
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * CirculationResult is the outcome of a conditional borrow or return in the database.
+ * A conflict means another terminal or process changed the book first; nothing was written.
+ */
+public enum CirculationResult {
+    SUCCESS,    // The book's state changed and the loan history was updated
+    CONFLICT,   // The book was not in the expected state (already borrowed, or not on loan)
+    BLOCKED,    // The borrower's unpaid fines have reached the borrowing block balance
+    NOT_FOUND,  // No book has this ISBN
+    ERROR;      // The database could not be updated; the transaction was rolled back
+
+    /**
+     * Checks whether the operation took effect
+     * @return true for SUCCESS, false otherwise
+     */
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+}
@@ -8,88 +8,13 @@ import java.util.List;
  * Manages community features like book reviews, ratings, and reading lists
  */
 public class CommunityFeatures {
-    private Connection connection;
+    private ConnectionPool pool;
     
     /**
-     * Creates a new CommunityFeatures with database connection
+     * Creates a new CommunityFeatures backed by the database connection pool
      */
-    public CommunityFeatures(Connection connection) {
-        this.connection = connection;
-        createCommunityTables();
-    }
-    
-    /**
-     * Creates necessary tables for community features
-     */
-    private void createCommunityTables() {
-        try {
-            Statement stmt = connection.createStatement();
-            
-            // Create book reviews table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS book_reviews (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "book_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "review_text TEXT NOT NULL, " +
-                "rating INTEGER NOT NULL, " + // 1-5 stars
-                "submission_date TEXT NOT NULL, " +
-                "likes INTEGER DEFAULT 0, " +
-                "FOREIGN KEY (book_id) REFERENCES books(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "UNIQUE(book_id, student_id)" +
-                ")"
-            );
-            
-            // Create reading lists table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS reading_lists (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "student_id INTEGER NOT NULL, " +
-                "list_name TEXT NOT NULL, " +
-                "description TEXT, " +
-                "is_public BOOLEAN DEFAULT 0, " +
-                "created_date TEXT NOT NULL, " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "UNIQUE(student_id, list_name)" +
-                ")"
-            );
-            
-            // Create reading list items table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS reading_list_items (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "list_id INTEGER NOT NULL, " +
-                "book_id INTEGER NOT NULL, " +
-                "date_added TEXT NOT NULL, " +
-                "notes TEXT, " +
-                "FOREIGN KEY (list_id) REFERENCES reading_lists(id), " +
-                "FOREIGN KEY (book_id) REFERENCES books(id), " +
-                "UNIQUE(list_id, book_id)" +
-                ")"
-            );
-            
-            // Create book discussion table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS book_discussions (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "book_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "parent_id INTEGER, " + // NULL for top-level comments
-                "comment_text TEXT NOT NULL, " +
-                "submission_date TEXT NOT NULL, " +
-                "likes INTEGER DEFAULT 0, " +
-                "FOREIGN KEY (book_id) REFERENCES books(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "FOREIGN KEY (parent_id) REFERENCES book_discussions(id)" +
-                ")"
-            );
-            
-            stmt.close();
-        } catch (SQLException e) {
-            System.err.println("Error creating community tables: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public CommunityFeatures(ConnectionPool pool) {
+        this.pool = pool;
     }
     
     /**
@@ -97,7 +22,7 @@ public class CommunityFeatures {
      * @return ID of the new review, or -1 if failed
      */
     public int addBookReview(int bookId, int studentId, String reviewText, int rating) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // First check if this student already reviewed this book
             PreparedStatement checkStmt = connection.prepareStatement(
                 "SELECT id FROM book_reviews WHERE book_id = ? AND student_id = ?"
@@ -178,7 +103,7 @@ public class CommunityFeatures {
      * Updates a book's overall rating based on reviews
      */
     private void updateBookRating(int bookId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Calculate average rating
             PreparedStatement calcStmt = connection.prepareStatement(
                 "SELECT AVG(rating) as avg_rating, COUNT(*) as count " +
@@ -218,7 +143,7 @@ public class CommunityFeatures {
      * @return ID of the new list, or -1 if failed
      */
     public int createReadingList(int studentId, String listName, String description, boolean isPublic) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO reading_lists (student_id, list_name, description, is_public, created_date) " +
                 "VALUES (?, ?, ?, ?, ?)",
@@ -258,7 +183,7 @@ public class CommunityFeatures {
      * @return true if successfully added
      */
     public boolean addBookToReadingList(int listId, int bookId, String notes) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Check if the book is already in the list
             PreparedStatement checkStmt = connection.prepareStatement(
                 "SELECT id FROM reading_list_items WHERE list_id = ? AND book_id = ?"
@@ -322,7 +247,7 @@ public class CommunityFeatures {
      * @return ID of the new comment, or -1 if failed
      */
     public int addBookComment(int bookId, int studentId, String commentText, Integer parentId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO book_discussions (book_id, student_id, parent_id, comment_text, submission_date) " +
                 "VALUES (?, ?, ?, ?, ?)",
@@ -369,7 +294,7 @@ public class CommunityFeatures {
     public List<BookReview> getBookReviews(int bookId) {
         List<BookReview> reviews = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT r.*, s.uid, s.first_name || ' ' || s.last_name as student_name " +
                 "FROM book_reviews r " +
@@ -415,7 +340,7 @@ public class CommunityFeatures {
     public List<ReadingList> getStudentReadingLists(int studentId) {
         List<ReadingList> lists = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT l.*, " +
                 "(SELECT COUNT(*) FROM reading_list_items i WHERE i.list_id = l.id) as book_count " +
@@ -459,7 +384,7 @@ public class CommunityFeatures {
     public List<ReadingListItem> getReadingListBooks(int listId) {
         List<ReadingListItem> items = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT i.*, b.title, b.author, b.isbn, b.is_available " +
                 "FROM reading_list_items i " +
@@ -505,7 +430,7 @@ public class CommunityFeatures {
     public List<BookComment> getBookComments(int bookId) {
         List<BookComment> comments = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT d.*, s.uid, s.first_name || ' ' || s.last_name as student_name " +
                 "FROM book_discussions d " +
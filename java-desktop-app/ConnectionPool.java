@@ -0,0 +1,404 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConnectionPool keeps a fixed number of open JDBC connections to the library database
+ * and caches prepared statements per connection.
+ *
+ * SQLite allows a single writer at a time, so the pool holds one dedicated writer connection
+ * (see {@link #getWriteConnection()}) shared under a lock, plus several query-only reader
+ * connections (see {@link #getConnection()}). In WAL mode readers never block the writer.
+ *
+ * Connections are leased per thread: asking again on a thread that already holds a connection
+ * returns the same one, so nested subsystem calls share a connection (and its transaction).
+ * A thread holding the writer also reads through the writer so it sees its own changes.
+ * Closing the returned handle gives the lease back; the physical connection is only returned
+ * to the pool when the outermost handle is closed.
+ *
+ * Prepared statements obtained from a pooled connection are kept open and reused for the same
+ * SQL. Closing them only closes their result sets and clears their parameters, so callers can
+ * keep the usual close() calls.
+ *
+ * When the outermost lease is closed, result sets and statements a caller left open are closed
+ * too. An SQLite statement left mid-step keeps its read snapshot, so a reader handed out in that
+ * state would keep serving data from before later commits.
+ */
+public class ConnectionPool {
+    private static final int STATEMENT_CACHE_SIZE = 64;   // Cached statements per connection
+    private static final long LEASE_TIMEOUT_SECONDS = 30; // How long to wait for a free connection
+
+    private final StorageConfig config;
+    private final PooledConnection writer;
+    private final ReentrantLock writerLock;
+    private final BlockingQueue<PooledConnection> idleConnections;
+    private final List<PooledConnection> allConnections;
+    private final ThreadLocal<PooledConnection> leasedConnection;
+    private volatile boolean closed;
+
+    /**
+     * Opens the writer and reader connections described by the storage configuration
+     * @param config Storage configuration of the database
+     * @throws SQLException if a connection cannot be opened
+     */
+    public ConnectionPool(StorageConfig config) throws SQLException {
+        this.config = config;
+        this.writerLock = new ReentrantLock(true);
+        this.idleConnections = new ArrayBlockingQueue<>(config.getReaderCount());
+        this.allConnections = new ArrayList<>();
+        this.leasedConnection = new ThreadLocal<>();
+
+        // Open the writer first: it switches the database file into the configured journal mode
+        this.writer = new PooledConnection(config.openWriter(), true);
+        allConnections.add(writer);
+
+        for (int i = 0; i < config.getReaderCount(); i++) {
+            PooledConnection pooled = new PooledConnection(config.openReader(), false);
+            allConnections.add(pooled);
+            idleConnections.add(pooled);
+        }
+    }
+
+    /**
+     * Leases the writer connection for the current thread, waiting for other writers to finish.
+     * All INSERT/UPDATE/DELETE and schema statements must go through this connection.
+     * The returned handle must be closed when done, typically with try-with-resources.
+     * @return The writer connection handle
+     * @throws SQLException if the pool is closed or the writer does not become free in time
+     */
+    public Connection getWriteConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!writerLock.tryLock(LEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out waiting for the database writer");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer", e);
+        }
+
+        writer.holds++;
+        return writer.handle;
+    }
+
+    /**
+     * Leases a reader connection for the current thread. If the thread already holds the writer,
+     * the writer is returned instead so reads see the thread's uncommitted changes.
+     * The returned handle must be closed when done, typically with try-with-resources.
+     * @return A pooled connection handle
+     * @throws SQLException if the pool is closed or no connection becomes free in time
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        if (writerLock.isHeldByCurrentThread()) {
+            return getWriteConnection();
+        }
+
+        PooledConnection pooled = leasedConnection.get();
+        if (pooled == null) {
+            try {
+                pooled = idleConnections.poll(LEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (pooled == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+            leasedConnection.set(pooled);
+        }
+
+        pooled.holds++;
+        return pooled.handle;
+    }
+
+    /**
+     * Gets the number of connections managed by the pool (readers plus the writer)
+     * @return The pool size
+     */
+    public int getSize() {
+        return allConnections.size();
+    }
+
+    /**
+     * Gets the storage configuration the pool was opened with
+     * @return The storage configuration
+     */
+    public StorageConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes all cached statements and connections
+     */
+    public void close() {
+        closed = true;
+        for (PooledConnection pooled : allConnections) {
+            pooled.closePhysical();
+        }
+        idleConnections.clear();
+    }
+
+    /**
+     * Returns a connection to the pool once its outermost lease is closed
+     */
+    private void release(PooledConnection pooled) throws SQLException {
+        if (pooled.holds == 0) {
+            return;
+        }
+
+        pooled.holds--;
+        try {
+            if (pooled.holds == 0) {
+                pooled.resetStatements();
+                pooled.closeOneOffStatements();
+
+                // Never hand out a connection with a half-finished transaction
+                if (!pooled.physical.isClosed() && !pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+            }
+        } finally {
+            if (pooled.writer) {
+                writerLock.unlock();
+            } else if (pooled.holds == 0) {
+                leasedConnection.remove();
+                if (!closed) {
+                    idleConnections.offer(pooled);
+                }
+            }
+        }
+    }
+
+    /**
+     * A physical connection, its statement cache and the proxy handed out to callers
+     */
+    private class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection handle;
+        private final boolean writer;
+        private final Map<String, CachedStatement> statementCache;
+        private final List<Statement> oneOffStatements; // Uncached statements handed out during the lease
+        private int holds; // Only touched by the thread holding the lease
+
+        PooledConnection(Connection physical, boolean writer) {
+            this.physical = physical;
+            this.writer = writer;
+            this.oneOffStatements = new ArrayList<>();
+            this.handle = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+
+            // Least recently used statements are closed once the cache is full
+            this.statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE && !eldest.getValue().inUse) {
+                        eldest.getValue().closePhysical();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release(this);
+                    return null;
+                case "isClosed":
+                    return holds == 0 || physical.isClosed();
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        return prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer) {
+                        return prepare((String) args[0], (Integer) args[1]);
+                    }
+                    break;
+                case "createStatement":
+                    return track((Statement) invokePhysical(method, args));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + physical;
+                default:
+                    break;
+            }
+
+            Object result = invokePhysical(method, args);
+            if (result instanceof Statement) {
+                // Other prepareStatement/prepareCall variants are not cached
+                track((Statement) result);
+            }
+            return result;
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private Statement track(Statement statement) {
+            oneOffStatements.add(statement);
+            return statement;
+        }
+
+        /**
+         * Returns a cached statement for the SQL, preparing it on first use
+         */
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys + ":" + sql;
+            CachedStatement cached = statementCache.get(key);
+
+            if (cached != null && cached.inUse) {
+                // Same SQL is already open further up the call stack; give out a one-off statement
+                return (PreparedStatement) track(prepareUncached(sql, autoGeneratedKeys));
+            }
+            if (cached == null) {
+                cached = new CachedStatement(prepareUncached(sql, autoGeneratedKeys));
+                statementCache.put(key, cached);
+            }
+
+            cached.inUse = true;
+            return cached.handle;
+        }
+
+        /**
+         * Makes every cached statement available again, including ones a caller forgot to close
+         */
+        private void resetStatements() throws SQLException {
+            for (CachedStatement cached : statementCache.values()) {
+                cached.reset();
+            }
+        }
+
+        /**
+         * Closes the uncached statements handed out during the lease (and so their result sets)
+         */
+        private void closeOneOffStatements() {
+            for (Statement statement : oneOffStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing statement: " + e.getMessage());
+                }
+            }
+            oneOffStatements.clear();
+        }
+
+        private PreparedStatement prepareUncached(String sql, int autoGeneratedKeys) throws SQLException {
+            if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            return physical.prepareStatement(sql);
+        }
+
+        private void closePhysical() {
+            for (CachedStatement cached : statementCache.values()) {
+                cached.closePhysical();
+            }
+            statementCache.clear();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing pooled connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open between uses; close() only makes it available again
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement physical;
+        private final PreparedStatement handle;
+        private final List<ResultSet> openResults; // Result sets produced since the statement was handed out
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+            this.openResults = new ArrayList<>();
+            this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    reset();
+                    return null;
+                case "isClosed":
+                    return !inUse || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        /**
+         * Closes the statement's result sets, which resets it, and makes it available again
+         */
+        private void reset() throws SQLException {
+            if (inUse) {
+                inUse = false;
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                physical.clearParameters();
+                physical.clearBatch();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,33 +1,80 @@
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.io.File;
+import java.util.Map;
 
 /**
  * DatabaseManager handles all database operations for the Library Management System
  */
 public class DatabaseManager {
-    private Connection connection;
+    private ConnectionPool pool;
     private static final String DB_NAME = "library.db";
     private GamificationSystem gamificationSystem;
+    // Applies gamification activities off the circulation path
+    private ActivityEventQueue activityQueue;
+    private FineManager fineManager;
+    private ReservationSystem reservationSystem;
+    private InterLibraryLoanSystem illSystem;
+    // Runs fine accrual, reservation expiry and other periodic jobs once started
+    private MaintenanceScheduler maintenanceScheduler;
+    
+    // Default maintenance cadence: period, jitter and time budget per run (milliseconds), rows per chunk
+    private static final long FINE_ACCRUAL_PERIOD_MS = 60 * 60 * 1000L;
+    private static final long ILL_OVERDUE_PERIOD_MS = 60 * 60 * 1000L;
+    private static final long POINT_LEDGER_PERIOD_MS = 24 * 60 * 60 * 1000L;
+    private static final long MAINTENANCE_JITTER_MS = 5 * 60 * 1000L;
+    private static final long MAINTENANCE_TIME_BUDGET_MS = 5000;
+    private static final int MAINTENANCE_CHUNK_ROWS = 500;
+    
+    // Books joined with their oldest active loan and its borrower, one row per book
+    private static final String BOOK_LOAD_QUERY =
+        "SELECT b.*, s.first_name AS borrower_first_name, s.last_name AS borrower_last_name, " +
+        "h.due_date AS loan_due_date " +
+        "FROM books b " +
+        "LEFT JOIN (SELECT book_id, MIN(id) AS loan_id FROM borrowing_history " +
+        "WHERE is_returned = 0 GROUP BY book_id) active ON active.book_id = b.id " +
+        "LEFT JOIN borrowing_history h ON h.id = active.loan_id " +
+        "LEFT JOIN students s ON h.student_id = s.id";
+    
+    // Bulk import: rows per multi-row INSERT (6 parameters each, well under SQLite's variable limit)
+    private static final int IMPORT_ROWS_PER_STATEMENT = 500;
+    // Bulk import: records committed per transaction unless the caller asks otherwise
+    public static final int DEFAULT_IMPORT_BATCH_SIZE = 10000;
 
     /**
      * Constructor initializes the database connection and creates tables if they don't exist
      */
     public DatabaseManager() {
+        this(new StorageConfig(DB_NAME));
+    }
+    
+    /**
+     * Constructor that opens the database described by a storage configuration
+     * @param storageConfig Database file, journal mode and pragma settings
+     */
+    public DatabaseManager(StorageConfig storageConfig) {
         try {
             // Load SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
             
-            // Connect to database (creates file if it doesn't exist)
-            connection = DriverManager.getConnection("jdbc:sqlite:" + DB_NAME);
+            // Open the connection pool (creates file if it doesn't exist)
+            pool = new ConnectionPool(storageConfig);
             
-            // Create tables if they don't exist
-            createTables();
+            // Create or upgrade the schema to the latest version
+            try (Connection connection = pool.getWriteConnection()) {
+                SchemaMigrator.migrate(connection);
+            }
             
             // Initialize gamification system
-            this.gamificationSystem = new GamificationSystem(connection);
+            this.gamificationSystem = new GamificationSystem(pool);
+            this.activityQueue = new ActivityEventQueue(gamificationSystem, ActivityEventQueue.DEFAULT_CAPACITY);
+            this.fineManager = new FineManager(pool);
+            this.reservationSystem = new ReservationSystem(pool);
+            this.illSystem = new InterLibraryLoanSystem(pool);
+            this.maintenanceScheduler = createMaintenanceScheduler();
             
             System.out.println("Database connection established.");
         } catch (ClassNotFoundException e) {
@@ -39,84 +86,11 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the necessary tables in the database if they don't exist
-     */
-    private void createTables() throws SQLException {
-        Statement statement = connection.createStatement();
-        
-        // Drop tables if they're corrupted
-        try {
-            File dbFile = new File("library.db");
-            if (dbFile.exists() && dbFile.length() < 100) {
-                // Database file is suspiciously small - might be corrupt
-                System.out.println("Database file is suspiciously small. Recreating tables.");
-                statement.execute("DROP TABLE IF EXISTS books");
-                statement.execute("DROP TABLE IF EXISTS students");
-            }
-        } catch (Exception e) {
-            System.out.println("Error checking database file: " + e.getMessage());
-        }
-        
-        // Create books table
-        System.out.println("Creating books table if it doesn't exist...");
-        statement.execute(
-            "CREATE TABLE IF NOT EXISTS books (" +
-            "isbn TEXT PRIMARY KEY, " +
-            "title TEXT NOT NULL, " +
-            "author TEXT NOT NULL, " +
-            "publication_year INTEGER, " +
-            "category TEXT, " +
-            "is_available BOOLEAN NOT NULL DEFAULT 1, " +
-            "borrower_name TEXT, " +
-            "borrower_uid TEXT, " +
-            "due_date TEXT, " +
-            "total_rating REAL DEFAULT 0, " +
-            "rating_count INTEGER DEFAULT 0" +
-            ")"
-        );
-        
-        // Check if books table exists and has required columns
-        try {
-            ResultSet rs = statement.executeQuery("PRAGMA table_info(books)");
-            boolean hasBorrowerUid = false;
-            while (rs.next()) {
-                String columnName = rs.getString("name");
-                if (columnName.equals("borrower_uid")) {
-                    hasBorrowerUid = true;
-                    break;
-                }
-            }
-            rs.close();
-            
-            if (!hasBorrowerUid) {
-                System.out.println("Adding borrower_uid column to books table...");
-                statement.execute("ALTER TABLE books ADD COLUMN borrower_uid TEXT");
-            }
-        } catch (SQLException e) {
-            System.out.println("Error checking books table columns: " + e.getMessage());
-        }
-        
-        // Create students table
-        statement.execute(
-            "CREATE TABLE IF NOT EXISTS students (" +
-            "uid TEXT PRIMARY KEY, " +
-            "name TEXT NOT NULL, " +
-            "department TEXT, " +
-            "enrollment_year TEXT, " +
-            "last_login TEXT" +
-            ")"
-        );
-        
-        statement.close();
-        System.out.println("Database tables created successfully.");
-    }
-    
     /**
      * Checks if a book already exists in the database
      */
     public boolean bookExists(String isbn) {
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement statement = connection.prepareStatement(
                 "SELECT isbn FROM books WHERE isbn = ?"
             );
@@ -140,7 +114,7 @@ public class DatabaseManager {
      * Adds a book to the database if it doesn't already exist
      */
     public boolean addBook(Book book) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Check if book already exists
             if (bookExists(book.getIsbn())) {
                 System.out.println("Book already exists in database: " + book.getTitle() + " (ISBN: " + book.getIsbn() + ")");
@@ -177,11 +151,123 @@ public class DatabaseManager {
         }
     }
     
+    /**
+     * Imports books in bulk. Records are pulled from the source as they are needed and written
+     * with multi-row INSERT OR IGNORE statements, one transaction per batch, so books whose ISBN
+     * already exists (in the database or earlier in the source) are skipped without a lookup.
+     * If a batch fails it is rolled back and the import stops; earlier batches stay committed.
+     * @param source Books to import, typically read lazily from a feed
+     * @param batchSize Number of records committed per transaction
+     * @return Counts, throughput and the books that were actually inserted
+     */
+    public BookImportResult importBooks(Iterator<Book> source, int batchSize) {
+        BookImportResult result = new BookImportResult();
+        long start = System.nanoTime();
+        List<Book> batch = new ArrayList<>();
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            
+            while (source.hasNext()) {
+                Book book = source.next();
+                boolean valid = book != null && isImportable(book);
+                result.recordRead(valid);
+                if (valid) {
+                    batch.add(book);
+                }
+                
+                if (batch.size() >= batchSize) {
+                    importBatch(connection, batch, result);
+                    batch.clear();
+                }
+            }
+            
+            if (!batch.isEmpty()) {
+                importBatch(connection, batch, result);
+                batch.clear();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error importing books, batch rolled back: " + e.getMessage());
+            e.printStackTrace();
+            result.markFailed(batch.size());
+        }
+        
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+    
+    /**
+     * Writes one batch of books in a single transaction and records which ones were inserted
+     */
+    private void importBatch(Connection connection, List<Book> batch, BookImportResult result) throws SQLException {
+        List<Book> inserted = new ArrayList<>();
+        try {
+            for (int from = 0; from < batch.size(); from += IMPORT_ROWS_PER_STATEMENT) {
+                List<Book> rows = batch.subList(from, Math.min(from + IMPORT_ROWS_PER_STATEMENT, batch.size()));
+                
+                // Within one statement the first row with an ISBN wins, as with INSERT OR IGNORE
+                Map<String, Book> rowsByIsbn = new LinkedHashMap<>();
+                for (Book book : rows) {
+                    rowsByIsbn.putIfAbsent(book.getIsbn(), book);
+                }
+                
+                PreparedStatement statement = connection.prepareStatement(buildImportStatement(rowsByIsbn.size()));
+                int index = 1;
+                for (Book book : rowsByIsbn.values()) {
+                    statement.setString(index++, book.getIsbn());
+                    statement.setString(index++, book.getTitle());
+                    statement.setString(index++, book.getAuthor());
+                    statement.setInt(index++, book.getPublicationYear());
+                    statement.setString(index++, book.getCategory());
+                    statement.setBoolean(index++, book.isAvailable());
+                }
+                
+                // RETURNING only yields the rows that were not ignored
+                ResultSet rs = statement.executeQuery();
+                while (rs.next()) {
+                    inserted.add(rowsByIsbn.get(rs.getString("isbn")));
+                }
+                rs.close();
+                statement.close();
+            }
+            
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        
+        for (Book book : inserted) {
+            result.addInserted(book);
+        }
+    }
+    
+    /**
+     * Builds a multi-row INSERT OR IGNORE for the given number of books
+     */
+    private static String buildImportStatement(int rowCount) {
+        StringBuilder sql = new StringBuilder(
+            "INSERT OR IGNORE INTO books (isbn, title, author, publication_year, category, is_available) VALUES "
+        );
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+        return sql.append(" RETURNING isbn").toString();
+    }
+    
+    /**
+     * Checks that a book has the columns the books table requires
+     */
+    private static boolean isImportable(Book book) {
+        return book.getIsbn() != null && !book.getIsbn().trim().isEmpty()
+            && book.getTitle() != null && book.getAuthor() != null;
+    }
+    
     /**
      * Removes a book from the database by ISBN
      */
     public boolean removeBook(String isbn) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement statement = connection.prepareStatement(
                 "DELETE FROM books WHERE isbn = ?"
             );
@@ -200,73 +286,190 @@ public class DatabaseManager {
     }
     
     /**
-     * Updates a book's borrowing status with student UID
+     * Updates a book's borrowing status with student UID.
+     * Legacy method kept for backward compatibility; use {@link #borrowBook} and {@link #returnBook},
+     * which report conflicts instead of a plain false.
      */
     public boolean updateBookBorrowStatus(String isbn, boolean isAvailable, String borrowerName, String borrowerUID, LocalDate dueDate) {
-        try {
-            PreparedStatement statement;
-            
-            if (isAvailable) {
-                // Returning a book
-                statement = connection.prepareStatement(
-                    "UPDATE books SET is_available = ?, borrower_name = NULL, borrower_uid = NULL, due_date = NULL WHERE isbn = ?"
+        if (isAvailable) {
+            return returnBook(isbn, borrowerUID).isSuccess();
+        }
+        return borrowBook(isbn, borrowerName, borrowerUID, dueDate).isSuccess();
+    }
+    
+    /**
+     * Lends a book if it is still available. The availability check and the change are one
+     * conditional UPDATE, and the borrowing_history row is written in the same transaction,
+     * so two terminals (or processes sharing the database file) cannot lend the same copy.
+     * @param isbn The ISBN of the book to lend
+     * @param borrowerName The name of the borrower
+     * @param borrowerUID The UID of the borrowing student, or null if unknown (no history row is written)
+     * @param dueDate The due date of the loan
+     * @return SUCCESS, CONFLICT if the book is already on loan, BLOCKED if the borrower's unpaid
+     *         fines have reached the block balance, NOT_FOUND or ERROR
+     */
+    public CirculationResult borrowBook(String isbn, String borrowerName, String borrowerUID, LocalDate dueDate) {
+        int studentId = -1;
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (borrowerUID != null) {
+                    studentId = getStudentIdFromUID(borrowerUID);
+                    // One primary key lookup in student_balances
+                    if (studentId > 0 && fineManager.isBorrowingBlocked(studentId)) {
+                        connection.rollback();
+                        return CirculationResult.BLOCKED;
+                    }
+                }
+                
+                PreparedStatement claim = connection.prepareStatement(
+                    "UPDATE books SET is_available = 0, borrower_name = ?, borrower_uid = ?, due_date = ? " +
+                    "WHERE isbn = ? AND is_available = 1 RETURNING id"
                 );
+                claim.setString(1, borrowerName);
+                claim.setString(2, borrowerUID);
+                claim.setString(3, dueDate != null ? dueDate.toString() : null);
+                claim.setString(4, isbn);
+                int bookId = readId(claim);
                 
-                statement.setBoolean(1, isAvailable);
-                statement.setString(2, isbn);
+                if (bookId < 0) {
+                    connection.rollback();
+                    return bookExists(connection, isbn) ? CirculationResult.CONFLICT : CirculationResult.NOT_FOUND;
+                }
                 
-                // Track returning activity for gamification
-                if (borrowerUID != null) {
-                    int studentId = getStudentIdFromUID(borrowerUID);
-                    if (studentId > 0) {
-                        LocalDate today = LocalDate.now();
-                        // Check if book was returned on time for achievement
-                        ResultSet rs = statement.executeQuery("SELECT due_date FROM books WHERE isbn = '" + isbn + "'");
-                        if (rs.next()) {
-                            String dueDateStr = rs.getString("due_date");
-                            if (dueDateStr != null) {
-                                LocalDate bookDueDate = LocalDate.parse(dueDateStr);
-                                if (!today.isAfter(bookDueDate)) {
-                                    // Book returned on time
-                                    gamificationSystem.trackActivity(studentId, GamificationSystem.ACHIEVEMENT_ONTIME);
-                                }
-                            }
-                        }
-                        rs.close();
-                        
-                        // Track general return activity
-                        gamificationSystem.trackActivity(studentId, GamificationSystem.ACHIEVEMENT_RETURN);
-                    }
+                if (studentId > 0 && dueDate != null) {
+                    PreparedStatement history = connection.prepareStatement(
+                        "INSERT INTO borrowing_history (book_id, student_id, borrow_date, due_date, is_returned) VALUES (?, ?, ?, ?, 0)"
+                    );
+                    history.setInt(1, bookId);
+                    history.setInt(2, studentId);
+                    history.setString(3, LocalDate.now().toString());
+                    history.setString(4, dueDate.toString());
+                    history.executeUpdate();
+                    history.close();
                 }
-            } else {
-                // Borrowing a book
-                statement = connection.prepareStatement(
-                    "UPDATE books SET is_available = ?, borrower_name = ?, borrower_uid = ?, due_date = ? WHERE isbn = ?"
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error borrowing book " + isbn + ": " + e.getMessage());
+            e.printStackTrace();
+            return CirculationResult.ERROR;
+        }
+        
+        // Track borrowing activity for gamification once the loan is committed
+        if (studentId > 0 && dueDate != null) {
+            activityQueue.submit(studentId, GamificationSystem.ACHIEVEMENT_BORROW);
+        }
+        return CirculationResult.SUCCESS;
+    }
+    
+    /**
+     * Takes a book back if it is on loan. The book is marked available with a conditional UPDATE
+     * and its open borrowing_history row is closed in the same transaction.
+     * @param isbn The ISBN of the book to return
+     * @param borrowerUID The UID of the returning student (used for gamification), or null
+     * @return SUCCESS, CONFLICT if the book is not on loan, NOT_FOUND or ERROR
+     */
+    public CirculationResult returnBook(String isbn, String borrowerUID) {
+        LocalDate today = LocalDate.now();
+        String loanDueDate = null;
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement release = connection.prepareStatement(
+                    "UPDATE books SET is_available = 1, borrower_name = NULL, borrower_uid = NULL, due_date = NULL " +
+                    "WHERE isbn = ? AND is_available = 0 RETURNING id"
                 );
+                release.setString(1, isbn);
+                int bookId = readId(release);
                 
-                statement.setBoolean(1, isAvailable);
-                statement.setString(2, borrowerName);
-                statement.setString(3, borrowerUID);
-                statement.setString(4, dueDate != null ? dueDate.toString() : null);
-                statement.setString(5, isbn);
+                if (bookId < 0) {
+                    connection.rollback();
+                    return bookExists(connection, isbn) ? CirculationResult.CONFLICT : CirculationResult.NOT_FOUND;
+                }
                 
-                // Track borrowing activity for gamification
-                if (borrowerUID != null) {
-                    int studentId = getStudentIdFromUID(borrowerUID);
-                    if (studentId > 0) {
-                        gamificationSystem.trackActivity(studentId, GamificationSystem.ACHIEVEMENT_BORROW);
-                    }
+                PreparedStatement history = connection.prepareStatement(
+                    "UPDATE borrowing_history SET is_returned = 1, return_date = ? " +
+                    "WHERE book_id = ? AND is_returned = 0 RETURNING due_date"
+                );
+                history.setString(1, today.toString());
+                history.setInt(2, bookId);
+                ResultSet rs = history.executeQuery();
+                while (rs.next()) {
+                    loanDueDate = rs.getString("due_date");
                 }
+                rs.close();
+                history.close();
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
-            
-            int rowsAffected = statement.executeUpdate();
-            statement.close();
-            
-            return rowsAffected > 0;
         } catch (SQLException e) {
-            System.err.println("Error updating book borrow status: " + e.getMessage());
+            System.err.println("Error returning book " + isbn + ": " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return CirculationResult.ERROR;
+        }
+        
+        // Track returning activity for gamification once the return is committed
+        if (borrowerUID != null) {
+            int studentId = getStudentIdFromUID(borrowerUID);
+            if (studentId > 0) {
+                // Check if book was returned on time for achievement
+                if (loanDueDate != null && !today.isAfter(LocalDate.parse(loanDueDate))) {
+                    activityQueue.submit(studentId, GamificationSystem.ACHIEVEMENT_ONTIME);
+                }
+                activityQueue.submit(studentId, GamificationSystem.ACHIEVEMENT_RETURN);
+            }
+        }
+        return CirculationResult.SUCCESS;
+    }
+    
+    /**
+     * Runs an UPDATE ... RETURNING id and reads the id of the changed row
+     * @return The row id, or -1 if no row matched
+     */
+    private static int readId(PreparedStatement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery();
+        int id = rs.next() ? rs.getInt("id") : -1;
+        rs.close();
+        statement.close();
+        return id;
+    }
+    
+    /**
+     * Checks whether a book with the given ISBN exists
+     */
+    private static boolean bookExists(Connection connection, String isbn) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM books WHERE isbn = ?");
+        statement.setString(1, isbn);
+        ResultSet rs = statement.executeQuery();
+        boolean exists = rs.next();
+        rs.close();
+        statement.close();
+        return exists;
+    }
+    
+    /**
+     * Gets one book with its current loan from the database
+     * @param isbn The ISBN of the book
+     * @return The book, or null if it does not exist or cannot be read
+     */
+    public Book getBook(String isbn) {
+        try (Connection connection = pool.getConnection()) {
+            List<Book> books = loadBooks(connection, "b.isbn = ?", isbn);
+            return books.isEmpty() ? null : books.get(0);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving book " + isbn + " from database.");
+            e.printStackTrace();
+            return null;
         }
     }
     
@@ -274,7 +477,7 @@ public class DatabaseManager {
      * Gets student ID from UID
      */
     private int getStudentIdFromUID(String uid) {
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement statement = connection.prepareStatement(
                 "SELECT rowid as id FROM students WHERE uid = ?"
             );
@@ -311,141 +514,170 @@ public class DatabaseManager {
      * @return Success status
      */
     public boolean updateBookRating(String isbn, double newRating, String reviewerUID) {
-        try {
-            // First get current rating info
-            PreparedStatement getStatement = connection.prepareStatement(
-                "SELECT total_rating, rating_count FROM books WHERE isbn = ?"
-            );
-            getStatement.setString(1, isbn);
-            ResultSet rs = getStatement.executeQuery();
+        int studentId = -1;
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            double totalRating;
+            int ratingCount;
             
-            if (rs.next()) {
-                double totalRating = rs.getDouble("total_rating");
-                int ratingCount = rs.getInt("rating_count");
-                
-                // Calculate new values
-                double newTotalRating = totalRating + newRating;
-                int newRatingCount = ratingCount + 1;
-                
-                // Update the book
-                PreparedStatement updateStatement = connection.prepareStatement(
-                    "UPDATE books SET total_rating = ?, rating_count = ? WHERE isbn = ?"
-                );
-                
-                updateStatement.setDouble(1, newTotalRating);
-                updateStatement.setInt(2, newRatingCount);
-                updateStatement.setString(3, isbn);
-                
-                int rowsAffected = updateStatement.executeUpdate();
+            // First get current rating info
+            try (PreparedStatement getStatement = connection.prepareStatement(
+                     "SELECT total_rating, rating_count FROM books WHERE isbn = ?"
+                 )) {
+                getStatement.setString(1, isbn);
                 
-                // Track review activity for gamification if reviewer UID is provided
-                if (reviewerUID != null) {
-                    int studentId = getStudentIdFromUID(reviewerUID);
-                    if (studentId > 0) {
-                        gamificationSystem.trackActivity(studentId, GamificationSystem.ACHIEVEMENT_REVIEW);
+                try (ResultSet rs = getStatement.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
                     }
+                    totalRating = rs.getDouble("total_rating");
+                    ratingCount = rs.getInt("rating_count");
                 }
-                
-                updateStatement.close();
-                
-                return rowsAffected > 0;
             }
             
-            rs.close();
-            getStatement.close();
-            return false;
+            // Calculate new values
+            double newTotalRating = totalRating + newRating;
+            int newRatingCount = ratingCount + 1;
+            
+            // Update the book
+            PreparedStatement updateStatement = connection.prepareStatement(
+                "UPDATE books SET total_rating = ?, rating_count = ? WHERE isbn = ?"
+            );
+            
+            updateStatement.setDouble(1, newTotalRating);
+            updateStatement.setInt(2, newRatingCount);
+            updateStatement.setString(3, isbn);
+            
+            int rowsAffected = updateStatement.executeUpdate();
+            updateStatement.close();
+            
+            if (rowsAffected == 0) {
+                return false;
+            }
+            if (reviewerUID != null) {
+                studentId = getStudentIdFromUID(reviewerUID);
+            }
         } catch (SQLException e) {
             System.err.println("Error updating book rating.");
             e.printStackTrace();
             return false;
         }
+        
+        // Track review activity for gamification once the writer is released
+        if (studentId > 0) {
+            activityQueue.submit(studentId, GamificationSystem.ACHIEVEMENT_REVIEW);
+        }
+        return true;
     }
     
     /**
      * Gets all books from the database
      */
     public List<Book> getAllBooks() {
-        List<Book> books = new ArrayList<>();
-        
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet rs = statement.executeQuery("SELECT * FROM books");
-            
-            while (rs.next()) {
-                Book book = createBookFromResultSet(rs);
-                books.add(book);
-            }
-            
-            rs.close();
-            statement.close();
+        try (Connection connection = pool.getConnection()) {
+            return loadBooks(connection, null);
         } catch (SQLException e) {
             System.err.println("Error retrieving books from database.");
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return books;
     }
     
     /**
      * Gets available books from the database
      */
     public List<Book> getAvailableBooks() {
-        List<Book> books = new ArrayList<>();
-        
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet rs = statement.executeQuery("SELECT * FROM books WHERE is_available = 1");
-            
-            while (rs.next()) {
-                Book book = createBookFromResultSet(rs);
-                books.add(book);
-            }
-            
-            rs.close();
-            statement.close();
+        try (Connection connection = pool.getConnection()) {
+            return loadBooks(connection, "b.is_available = 1");
         } catch (SQLException e) {
             System.err.println("Error retrieving available books from database.");
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    /**
+     * Gets the highest rated available books, read in rating order from the rating index
+     * @param limit Maximum number of books to return
+     * @return Available books, highest average rating first (unrated books count as 0)
+     */
+    public List<Book> getTopRatedBooks(int limit) {
+        // Pick the ids through the index first so the loan joins only run for the returned rows
+        String topIds =
+            "b.id IN (SELECT id FROM books WHERE is_available = 1 " +
+            "ORDER BY " + SchemaMigrator.AVERAGE_RATING + " DESC, id LIMIT " + Math.max(0, limit) + ")";
+        String ordering = "(CASE WHEN b.rating_count > 0 THEN b.total_rating / b.rating_count ELSE 0 END) DESC, b.id";
         
-        return books;
+        try (Connection connection = pool.getConnection()) {
+            return loadBooksOrdered(connection, topIds, ordering);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving top rated books from database.");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
     }
     
     /**
      * Searches for books by various criteria
      */
     public List<Book> searchBooks(String column, String searchTerm) {
-        List<Book> books = new ArrayList<>();
-        
-        try {
-            PreparedStatement statement = connection.prepareStatement(
-                "SELECT * FROM books WHERE " + column + " LIKE ?"
-            );
-            
-            statement.setString(1, "%" + searchTerm + "%");
-            
-            ResultSet rs = statement.executeQuery();
-            
-            while (rs.next()) {
-                Book book = createBookFromResultSet(rs);
-                books.add(book);
-            }
-            
-            rs.close();
-            statement.close();
+        try (Connection connection = pool.getConnection()) {
+            return loadBooks(connection, "b." + column + " LIKE ?", "%" + searchTerm + "%");
         } catch (SQLException e) {
             System.err.println("Error searching books in database.");
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    /**
+     * Loads books together with their active borrower in a single query
+     * @param condition Optional SQL condition on the books table (alias b), or null for all books
+     * @param params Values bound to the condition's placeholders
+     * @return List of books matching the condition
+     */
+    private List<Book> loadBooks(Connection connection, String condition, String... params) throws SQLException {
+        return loadBooksOrdered(connection, condition, null, params);
+    }
+    
+    /**
+     * Loads books together with their active borrower in a single query, in a given order
+     * @param condition Optional SQL condition on the books table (alias b), or null for all books
+     * @param ordering Optional ORDER BY clause (without the keywords), or null for table order
+     * @param params Values bound to the condition's placeholders
+     * @return List of books matching the condition
+     */
+    private List<Book> loadBooksOrdered(Connection connection, String condition, String ordering, String... params) throws SQLException {
+        List<Book> books = new ArrayList<>();
+        
+        String sql = BOOK_LOAD_QUERY;
+        if (condition != null) {
+            sql += " WHERE " + condition;
+        }
+        if (ordering != null) {
+            sql += " ORDER BY " + ordering;
+        }
+        
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            statement.setString(i + 1, params[i]);
+        }
+        
+        ResultSet rs = statement.executeQuery();
+        while (rs.next()) {
+            books.add(createBookFromResultSet(rs));
+        }
+        
+        rs.close();
+        statement.close();
         
         return books;
     }
     
     /**
-     * Helper method to create a Book object from a database result set
+     * Helper method to create a Book object from a row of {@link #BOOK_LOAD_QUERY}
      */
     private Book createBookFromResultSet(ResultSet rs) throws SQLException {
-        int bookId = rs.getInt("id");
         String isbn = rs.getString("isbn");
         String title = rs.getString("title");
         String author = rs.getString("author");
@@ -454,28 +686,17 @@ public class DatabaseManager {
         boolean isAvailable = rs.getBoolean("is_available");
         double totalRating = rs.getDouble("total_rating");
         int ratingCount = rs.getInt("rating_count");
-        String shelfLocation = rs.getString("shelf_location");
         
         Book book = new Book(title, author, isbn, year, category);
         book.setAvailable(isAvailable);
         
-        // If the book is not available, get borrower information from the borrowing_history table
+        // If the book is not available, the borrower columns come from the joined active loan
         if (!isAvailable) {
-            PreparedStatement stmt = connection.prepareStatement(
-                "SELECT s.first_name, s.last_name, h.due_date " +
-                "FROM borrowing_history h " +
-                "JOIN students s ON h.student_id = s.id " +
-                "WHERE h.book_id = ? AND h.is_returned = 0"
-            );
-            
-            stmt.setInt(1, bookId);
-            ResultSet borrowerRs = stmt.executeQuery();
+            String borrowerFirstName = rs.getString("borrower_first_name");
             
-            if (borrowerRs.next()) {
-                String borrowerFirstName = borrowerRs.getString("first_name");
-                String borrowerLastName = borrowerRs.getString("last_name");
-                String borrowerName = borrowerFirstName + " " + borrowerLastName;
-                String dueDateStr = borrowerRs.getString("due_date");
+            if (borrowerFirstName != null) {
+                String borrowerName = borrowerFirstName + " " + rs.getString("borrower_last_name");
+                String dueDateStr = rs.getString("loan_due_date");
                 
                 book.setBorrowerName(borrowerName);
                 
@@ -485,44 +706,46 @@ public class DatabaseManager {
                     book.setDueDate(dueDate);
                 }
             }
-            
-            borrowerRs.close();
-            stmt.close();
         }
         
-        // Set rating if it exists
-        if (ratingCount > 0) {
-            double avgRating = totalRating / ratingCount;
-            
-            // We need to directly set the rating fields 
-            for (int i = 0; i < ratingCount; i++) {
-                book.addRating(avgRating);
-            }
-        }
+        // Restore rating totals directly, independent of how many ratings were given
+        book.restoreRating(totalRating, ratingCount);
         
         return book;
     }
     
     /**
-     * Closes the database connection
+     * Applies the queued gamification activities, then closes all pooled database connections
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection.");
-            e.printStackTrace();
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.shutdown();
+        }
+        if (reservationSystem != null) {
+            reservationSystem.close();
+        }
+        if (activityQueue != null) {
+            activityQueue.close();
+        }
+        if (pool != null) {
+            pool.close();
+            System.out.println("Database connection closed.");
         }
     }
+    
+    /**
+     * Gets the connection pool shared by the library subsystems
+     * @return The connection pool
+     */
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
 
     /**
      * Registers or updates a student in the database
      */
     public boolean registerStudent(String uid, String fullName) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Extract first and last name from full name
             String firstName = fullName;
             String lastName = "";
@@ -592,14 +815,28 @@ public class DatabaseManager {
 
     /**
      * Gets student information from the database
+     * @param uid Student UID
+     * @return The student's row by column name, or null if there is no such student
      */
-    public ResultSet getStudentInfo(String uid) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(
-                "SELECT * FROM students WHERE uid = ?"
-            );
+    public Map<String, Object> getStudentInfo(String uid) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "SELECT * FROM students WHERE uid = ?"
+             )) {
             statement.setString(1, uid);
-            return statement.executeQuery();
+            
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                
+                ResultSetMetaData metaData = rs.getMetaData();
+                Map<String, Object> student = new LinkedHashMap<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    student.put(metaData.getColumnName(i), rs.getObject(i));
+                }
+                return student;
+            }
         } catch (SQLException e) {
             System.err.println("Error retrieving student information.");
             e.printStackTrace();
@@ -613,26 +850,15 @@ public class DatabaseManager {
     public List<Book> getBooksBorrowedByStudent(String uid) {
         List<Book> books = new ArrayList<>();
         
-        try {
-            // Use the active_loans view to get all currently borrowed books
-            PreparedStatement statement = connection.prepareStatement(
-                "SELECT b.* FROM books b " +
-                "JOIN borrowing_history h ON b.id = h.book_id " +
-                "JOIN students s ON h.student_id = s.id " +
-                "WHERE s.uid = ? AND h.is_returned = 0"
+        try (Connection connection = pool.getConnection()) {
+            // Restrict the joined loader to books on an active loan to this student
+            books = loadBooks(connection, 
+                "b.id IN (SELECT lh.book_id FROM borrowing_history lh " +
+                "JOIN students ls ON lh.student_id = ls.id " +
+                "WHERE ls.uid = ? AND lh.is_returned = 0)",
+                uid
             );
             
-            statement.setString(1, uid);
-            ResultSet rs = statement.executeQuery();
-            
-            while (rs.next()) {
-                Book book = createBookFromResultSet(rs);
-                books.add(book);
-            }
-            
-            rs.close();
-            statement.close();
-            
             if (books.isEmpty()) {
                 System.out.println("No books found borrowed by student with UID: " + uid);
             } else {
@@ -651,7 +877,7 @@ public class DatabaseManager {
      * @return The number of books in the database
      */
     public int getBookCount() {
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement statement = connection.createStatement();
             ResultSet rs = statement.executeQuery("SELECT COUNT(*) as count FROM books");
             
@@ -679,23 +905,90 @@ public class DatabaseManager {
         return gamificationSystem;
     }
     
+    /**
+     * Gets the fine manager instance
+     * @return The fine manager
+     */
+    public FineManager getFineManager() {
+        return fineManager;
+    }
+    
+    /**
+     * Gets the reservation system instance
+     * @return The reservation system
+     */
+    public ReservationSystem getReservationSystem() {
+        return reservationSystem;
+    }
+    
+    /**
+     * Gets the inter-library loan system instance
+     * @return The inter-library loan system
+     */
+    public InterLibraryLoanSystem getInterLibraryLoanSystem() {
+        return illSystem;
+    }
+    
+    /**
+     * Starts the background maintenance: the scheduled jobs and the reservation expiry timer
+     */
+    public void startMaintenance() {
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.start();
+        }
+        if (reservationSystem != null) {
+            reservationSystem.startExpiryTimer();
+        }
+    }
+    
+    /**
+     * Gets the maintenance scheduler; its jobs only run once {@link #startMaintenance()} has been called
+     * @return The maintenance scheduler
+     */
+    public MaintenanceScheduler getMaintenanceScheduler() {
+        return maintenanceScheduler;
+    }
+    
+    /**
+     * Creates the maintenance scheduler with the default jobs (not started)
+     */
+    private MaintenanceScheduler createMaintenanceScheduler() {
+        MaintenanceScheduler scheduler = new MaintenanceScheduler();
+        scheduler.schedule("fine-accrual", fineManager::accrueNextFines,
+            FINE_ACCRUAL_PERIOD_MS, MAINTENANCE_JITTER_MS, MAINTENANCE_TIME_BUDGET_MS, MAINTENANCE_CHUNK_ROWS);
+        scheduler.schedule("ill-overdue", illSystem::markOverdueILLRequests,
+            ILL_OVERDUE_PERIOD_MS, MAINTENANCE_JITTER_MS, MAINTENANCE_TIME_BUDGET_MS, MAINTENANCE_CHUNK_ROWS);
+        scheduler.schedule("point-ledger-compaction", gamificationSystem::compactPointLedger,
+            POINT_LEDGER_PERIOD_MS, MAINTENANCE_JITTER_MS, MAINTENANCE_TIME_BUDGET_MS, MAINTENANCE_CHUNK_ROWS);
+        return scheduler;
+    }
+    
+    /**
+     * Gets the queue through which circulation reports gamification activities
+     * @return The activity event queue
+     */
+    public ActivityEventQueue getActivityQueue() {
+        return activityQueue;
+    }
+    
     /**
      * Gets the borrower UID for a given book ISBN
      * @param isbn The ISBN of the book
      * @return The UID of the student who borrowed the book, or null if not borrowed
      */
     public String getBorrowerUID(String isbn) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(
-                "SELECT borrower_uid FROM books WHERE isbn = ?"
-            );
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "SELECT borrower_uid FROM books WHERE isbn = ?"
+             )) {
             statement.setString(1, isbn);
-            ResultSet rs = statement.executeQuery();
             
-            if (rs.next()) {
-                return rs.getString("borrower_uid");
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("borrower_uid");
+                }
+                return null;
             }
-            return null;
         } catch (SQLException e) {
             System.err.println("Error getting borrower UID for book: " + e.getMessage());
             return null;
@@ -1,9 +1,12 @@
 import java.sql.*;
 import java.util.Random;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class to populate the database with a large collection of books and students
@@ -12,7 +15,7 @@ public class DatabasePopulator {
     private static final Random random = new Random();
     
     // Lists of sample data for generating books
-    private static final String[] FICTION_TITLES = {
+    static final String[] FICTION_TITLES = {
         "The Silent Patient", "Where the Crawdads Sing", "The Midnight Library", 
         "Verity", "It Ends with Us", "The Four Winds", "The Last Thing He Told Me",
         "The Guest List", "The Vanishing Half", "The Invisible Life of Addie LaRue",
@@ -27,7 +30,7 @@ public class DatabasePopulator {
         "The Song of Achilles", "The Thursday Murder Club", "Project Hail Mary", "Klara and the Sun"
     };
     
-    private static final String[] NONFICTION_TITLES = {
+    static final String[] NONFICTION_TITLES = {
         "Atomic Habits", "Educated", "Becoming", "Untamed", "Sapiens", 
         "Maybe You Should Talk to Someone", "Talking to Strangers", "Greenlights",
         "The Body Keeps the Score", "Between the World and Me", "Born a Crime",
@@ -42,7 +45,7 @@ public class DatabasePopulator {
         "The Subtle Art of Not Giving a F*ck", "Range", "Thinking in Systems"
     };
     
-    private static final String[] TECHNICAL_TITLES = {
+    static final String[] TECHNICAL_TITLES = {
         "Clean Code", "The Pragmatic Programmer", "Design Patterns", 
         "Refactoring", "Introduction to Algorithms", "Code Complete",
         "The Clean Coder", "Head First Design Patterns", "Cracking the Coding Interview",
@@ -55,7 +58,7 @@ public class DatabasePopulator {
         "The DevOps Handbook", "Release It!", "Working Effectively with Legacy Code"
     };
     
-    private static final String[] AUTHORS = {
+    static final String[] AUTHORS = {
         "Jane Austen", "Stephen King", "J.K. Rowling", "Ernest Hemingway", 
         "F. Scott Fitzgerald", "Toni Morrison", "George Orwell", "Virginia Woolf",
         "James Baldwin", "Haruki Murakami", "Gabriel García Márquez", "Alice Walker",
@@ -70,7 +73,7 @@ public class DatabasePopulator {
         "Trevor Noah", "Robert Martin", "Martin Fowler", "Eric Evans"
     };
     
-    private static final String[] CATEGORIES = {
+    static final String[] CATEGORIES = {
         "Fiction", "Non-Fiction", "Mystery", "Thriller", "Science Fiction", 
         "Fantasy", "Romance", "Historical Fiction", "Biography", "Memoir",
         "Self-Help", "Business", "Science", "Philosophy", "Poetry",
@@ -78,7 +81,7 @@ public class DatabasePopulator {
         "Personal Development", "Psychology", "History", "Economics"
     };
     
-    private static final String[] STUDENT_FIRST_NAMES = {
+    static final String[] STUDENT_FIRST_NAMES = {
         "Aiden", "Emma", "Liam", "Olivia", "Noah", "Ava", "William", "Sophia", "James", "Isabella",
         "Oliver", "Charlotte", "Benjamin", "Amelia", "Elijah", "Mia", "Lucas", "Harper", "Mason", "Evelyn",
         "Logan", "Abigail", "Alexander", "Emily", "Ethan", "Elizabeth", "Jacob", "Sofia", "Michael", "Avery",
@@ -89,7 +92,7 @@ public class DatabasePopulator {
         "Ryan", "Ming", "Nathan", "Jin", "Caleb", "Anika", "Muhammad", "Zara", "Luca", "Yuna"
     };
     
-    private static final String[] STUDENT_LAST_NAMES = {
+    static final String[] STUDENT_LAST_NAMES = {
         "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
         "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
         "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
@@ -99,7 +102,7 @@ public class DatabasePopulator {
         "Ali", "Hassan", "Sharma", "Gupta", "Cohen", "Rossi", "Ferrari", "Muller", "Schmidt", "Weber"
     };
     
-    private static final String[] DEPARTMENTS = {
+    static final String[] DEPARTMENTS = {
         "Computer Science", "Electrical Engineering", "Mechanical Engineering", "Civil Engineering", 
         "Chemical Engineering", "Biology", "Chemistry", "Physics", "Mathematics", "Business",
         "Economics", "Psychology", "Sociology", "Political Science", "History", 
@@ -107,7 +110,7 @@ public class DatabasePopulator {
     };
     
     // Department codes
-    private static final String[] DEPT_CODES = {
+    static final String[] DEPT_CODES = {
         "BCS", "BEE", "BME", "BCE", "BCH", "BIO", "CHM", "PHY", "MTH", "BUS",
         "ECO", "PSY", "SOC", "POL", "HIS", "ENG", "PHL", "ART", "MUS", "MED"
     };
@@ -123,71 +126,8 @@ public class DatabasePopulator {
             
             Connection conn = DriverManager.getConnection("jdbc:sqlite:library.db");
             
-            // Create necessary tables if they don't exist
-            Statement stmt = conn.createStatement();
-            
-            // Create books table with all necessary columns
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS books (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "isbn TEXT UNIQUE NOT NULL, " +
-                "title TEXT NOT NULL, " +
-                "author TEXT NOT NULL, " +
-                "publication_year INTEGER, " +
-                "category TEXT, " +
-                "is_available BOOLEAN NOT NULL DEFAULT 1, " +
-                "total_rating REAL DEFAULT 0, " +
-                "rating_count INTEGER DEFAULT 0, " +
-                "shelf_location TEXT, " +
-                "date_added TEXT DEFAULT CURRENT_TIMESTAMP" +
-                ")"
-            );
-            
-            // Create students table with full student information
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS students (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "uid TEXT UNIQUE NOT NULL, " +
-                "first_name TEXT NOT NULL, " +
-                "last_name TEXT NOT NULL, " +
-                "email TEXT, " +
-                "phone TEXT, " +
-                "department_code TEXT, " +
-                "department TEXT, " +
-                "enrollment_year TEXT, " +
-                "semester INTEGER, " +
-                "active BOOLEAN DEFAULT 1, " +
-                "date_registered TEXT DEFAULT CURRENT_TIMESTAMP, " +
-                "last_login TEXT" +
-                ")"
-            );
-            
-            // Create borrowing_history table to track all borrowing transactions
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS borrowing_history (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "book_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "borrow_date TEXT NOT NULL, " +
-                "due_date TEXT NOT NULL, " +
-                "return_date TEXT, " +
-                "is_returned BOOLEAN DEFAULT 0, " +
-                "FOREIGN KEY (book_id) REFERENCES books(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id)" +
-                ")"
-            );
-            
-            // Create active_loans view for easy querying of current loans
-            stmt.execute(
-                "CREATE VIEW IF NOT EXISTS active_loans AS " +
-                "SELECT b.id as book_id, b.title, b.isbn, b.author, " +
-                "s.id as student_id, s.uid, s.first_name, s.last_name, " +
-                "h.borrow_date, h.due_date, h.id as loan_id " +
-                "FROM borrowing_history h " +
-                "JOIN books b ON h.book_id = b.id " +
-                "JOIN students s ON h.student_id = s.id " +
-                "WHERE h.is_returned = 0"
-            );
+            // Create the schema through the migrator so the populated file is at the latest version
+            SchemaMigrator.migrate(conn);
             
             // Generate books data
             System.out.println("Adding fiction books...");
@@ -241,7 +181,6 @@ public class DatabasePopulator {
             printDatabaseSummary(conn);
             
             // Close connections
-            stmt.close();
             conn.close();
             
         } catch (SQLException e) {
@@ -336,7 +275,7 @@ public class DatabasePopulator {
     /**
      * Prints a summary of the database contents
      */
-    private static void printDatabaseSummary(Connection conn) throws SQLException {
+    static void printDatabaseSummary(Connection conn) throws SQLException {
         Statement stmt = conn.createStatement();
         
         ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM books");
@@ -375,6 +314,7 @@ public class DatabasePopulator {
         stmt.execute("DROP TABLE IF EXISTS borrowing_history");
         stmt.execute("DROP TABLE IF EXISTS books");
         stmt.execute("DROP TABLE IF EXISTS students");
+        stmt.execute("DROP TABLE IF EXISTS schema_migrations");
         
         stmt.close();
         conn.close();
@@ -486,7 +426,10 @@ public class DatabasePopulator {
     }
     
     /**
-     * Main method to run the populator as a standalone utility
+     * Main method to run the populator as a standalone utility.
+     * Without arguments the small sample library.db is rebuilt; with arguments a large synthetic
+     * dataset is generated, e.g. {@code --books 2000000 --seed 7 --db library-scale.db}
+     * (see {@link #generateScaledDatabase(String[])} for all options).
      */
     public static void main(String[] args) {
         System.out.println("Starting database population...");
@@ -494,8 +437,12 @@ public class DatabasePopulator {
             // Load SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
             
-            // Populate the database
-            populateDatabase();
+            if (args.length > 0) {
+                generateScaledDatabase(args);
+            } else {
+                // Populate the database
+                populateDatabase();
+            }
             
             System.out.println("Database population completed successfully.");
         } catch (ClassNotFoundException e) {
@@ -503,4 +450,50 @@ public class DatabasePopulator {
             e.printStackTrace();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Generates a production-scale synthetic database with DatasetGenerator.
+     * Options: --books N (other counts scale with it), --students N, --loans N, --reservations N,
+     * --points N, --seed N, --threads N, --date YYYY-MM-DD and --db PATH (default library-scale.db)
+     */
+    private static void generateScaledDatabase(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        
+        try {
+            DatasetGenerator generator = options.containsKey("books")
+                ? DatasetGenerator.forScale(Integer.parseInt(options.get("books")))
+                : new DatasetGenerator();
+            if (options.containsKey("students")) {
+                generator.setStudentCount(Integer.parseInt(options.get("students")));
+            }
+            if (options.containsKey("loans")) {
+                generator.setLoanCount(Long.parseLong(options.get("loans")));
+            }
+            if (options.containsKey("reservations")) {
+                generator.setReservationCount(Long.parseLong(options.get("reservations")));
+            }
+            if (options.containsKey("points")) {
+                generator.setPointTransactionCount(Long.parseLong(options.get("points")));
+            }
+            if (options.containsKey("seed")) {
+                generator.setSeed(Long.parseLong(options.get("seed")));
+            }
+            if (options.containsKey("threads")) {
+                generator.setThreads(Integer.parseInt(options.get("threads")));
+            }
+            if (options.containsKey("date")) {
+                generator.setReferenceDate(LocalDate.parse(options.get("date")));
+            }
+            
+            generator.generate(options.getOrDefault("db", "library-scale.db"));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Error generating database: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
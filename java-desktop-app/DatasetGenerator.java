@@ -0,0 +1,753 @@
+import java.io.File;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * DatasetGenerator builds a synthetic library database at production scale for load tests and
+ * benchmarks: millions of books, hundreds of thousands of students and tens of millions of loan,
+ * fine, reservation and point rows. It reuses the sample names and titles of DatabasePopulator.
+ *
+ * Book and student activity follows a Zipfian popularity skew. Rows are generated in parallel
+ * in fixed-size chunks, each chunk from its own random stream derived from the seed, and written
+ * in chunk order by a single writer with multi-row INSERTs, one transaction per chunk. The same
+ * seed, scale and reference date therefore always produce the same database.
+ */
+public class DatasetGenerator {
+    private static final int CHUNK_ROWS = 20000;               // Rows generated per task and committed per transaction
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 30000; // Below SQLite's 32766 variable limit
+    private static final int MAX_STUDENTS = 10_000_000;        // UIDs have 5 digits per year and department
+    private static final int LOAN_PERIOD_DAYS = 14;
+    private static final double DAILY_FINE_RATE = 0.50;        // Same defaults as FineManager
+    private static final double MAXIMUM_FINE = 20.0;
+
+    private static final String[] ACTIVITY_TYPES = {
+        GamificationSystem.ACHIEVEMENT_BORROW, GamificationSystem.ACHIEVEMENT_RETURN,
+        GamificationSystem.ACHIEVEMENT_ONTIME, GamificationSystem.ACHIEVEMENT_REVIEW,
+        GamificationSystem.ACHIEVEMENT_READING_LIST, GamificationSystem.ACHIEVEMENT_DISCUSSION
+    };
+    private static final int[] ACTIVITY_POINTS = {5, 3, 8, 10, 5, 7};         // GamificationSystem base points
+    private static final int[] ACTIVITY_WEIGHTS = {40, 35, 15, 5, 3, 2};      // Percent of transactions
+
+    private int bookCount = 1_000_000;
+    private int studentCount = 100_000;
+    private long loanCount = 10_000_000L;
+    private long reservationCount = 2_000_000L;
+    private long pointTransactionCount = 10_000_000L;
+    private long seed = 42L;
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private double bookSkew = 1.0;          // Zipf exponent of book popularity
+    private double studentSkew = 0.8;       // Zipf exponent of student activity
+    private double activeLoanRate = 0.05;   // Share of books currently on loan
+    private double lateReturnRate = 0.12;   // Share of past loans returned late (and fined)
+    private int historyDays = 3 * 365;      // How far back the generated history goes
+    private LocalDate referenceDate = LocalDate.now();
+
+    // Set up by generate()
+    private ZipfianGenerator bookPopularity;
+    private ZipfianGenerator studentActivity;
+    private long bookStride;
+    private long bookStrideInverse;
+    private long studentStride;
+    private String[] titles;
+
+    /**
+     * Creates a generator with the default scale (1M books, 100k students, 10M loans,
+     * 2M reservations and 10M point transactions)
+     */
+    public DatasetGenerator() {
+    }
+
+    /**
+     * Creates a generator whose other row counts are derived from the number of books:
+     * one student per 10 books, 10 loans, 2 reservations and 10 point transactions per book
+     * @param bookCount Number of books
+     * @return The generator
+     */
+    public static DatasetGenerator forScale(int bookCount) {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.setBookCount(bookCount);
+        generator.setStudentCount(Math.max(50, bookCount / 10));
+        generator.setLoanCount(bookCount * 10L);
+        generator.setReservationCount(bookCount * 2L);
+        generator.setPointTransactionCount(bookCount * 10L);
+        return generator;
+    }
+
+    public void setBookCount(int bookCount) {
+        if (bookCount > 0) {
+            this.bookCount = bookCount;
+        }
+    }
+
+    public void setStudentCount(int studentCount) {
+        if (studentCount > 0 && studentCount <= MAX_STUDENTS) {
+            this.studentCount = studentCount;
+        }
+    }
+
+    public void setLoanCount(long loanCount) {
+        if (loanCount >= 0) {
+            this.loanCount = loanCount;
+        }
+    }
+
+    public void setReservationCount(long reservationCount) {
+        if (reservationCount >= 0) {
+            this.reservationCount = reservationCount;
+        }
+    }
+
+    public void setPointTransactionCount(long pointTransactionCount) {
+        if (pointTransactionCount >= 0) {
+            this.pointTransactionCount = pointTransactionCount;
+        }
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setThreads(int threads) {
+        if (threads > 0) {
+            this.threads = threads;
+        }
+    }
+
+    public void setBookSkew(double bookSkew) {
+        if (bookSkew > 0) {
+            this.bookSkew = bookSkew;
+        }
+    }
+
+    public void setStudentSkew(double studentSkew) {
+        if (studentSkew > 0) {
+            this.studentSkew = studentSkew;
+        }
+    }
+
+    public void setActiveLoanRate(double activeLoanRate) {
+        if (activeLoanRate >= 0 && activeLoanRate <= 1) {
+            this.activeLoanRate = activeLoanRate;
+        }
+    }
+
+    public void setLateReturnRate(double lateReturnRate) {
+        if (lateReturnRate >= 0 && lateReturnRate <= 1) {
+            this.lateReturnRate = lateReturnRate;
+        }
+    }
+
+    public void setHistoryDays(int historyDays) {
+        if (historyDays > 60) {
+            this.historyDays = historyDays;
+        }
+    }
+
+    /**
+     * Sets the "today" of the generated data; fix it to reproduce a database exactly
+     * @param referenceDate The reference date
+     */
+    public void setReferenceDate(LocalDate referenceDate) {
+        if (referenceDate != null) {
+            this.referenceDate = referenceDate;
+        }
+    }
+
+    /**
+     * Generates the database, replacing any existing file at the path
+     * @param databasePath Path of the SQLite database file to create
+     * @throws SQLException if the data cannot be written
+     */
+    public void generate(String databasePath) throws SQLException {
+        deleteDatabaseFiles(databasePath);
+        System.out.println("Generating " + this + " into " + databasePath);
+        long start = System.nanoTime();
+
+        bookPopularity = new ZipfianGenerator(bookCount, bookSkew);
+        studentActivity = new ZipfianGenerator(studentCount, studentSkew);
+        bookStride = coprimeStride(bookCount);
+        bookStrideInverse = BigInteger.valueOf(bookStride).modInverse(BigInteger.valueOf(bookCount)).longValue();
+        studentStride = coprimeStride(studentCount);
+        titles = concat(DatabasePopulator.FICTION_TITLES, DatabasePopulator.NONFICTION_TITLES, DatabasePopulator.TECHNICAL_TITLES);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath)) {
+            Statement stmt = connection.createStatement();
+            // Bulk-load settings: nothing to recover if generation fails half way, the file is rebuilt
+            stmt.execute("PRAGMA journal_mode = OFF");
+            stmt.execute("PRAGMA synchronous = OFF");
+            stmt.execute("PRAGMA cache_size = -262144");
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.close();
+
+            SchemaMigrator.migrate(connection);
+
+            // Secondary indexes are rebuilt once at the end instead of being updated per row
+            Map<String, String> indexes = dropSecondaryIndexes(connection);
+            connection.setAutoCommit(false);
+
+            writeRows(connection, executor, 1, "books", bookCount, this::generateBooks,
+                new TableSpec("books", "id", "isbn", "title", "author", "publication_year", "category",
+                    "is_available", "total_rating", "rating_count", "shelf_location", "date_added"));
+
+            writeRows(connection, executor, 2, "students", studentCount, this::generateStudents,
+                new TableSpec("students", "id", "uid", "first_name", "last_name", "email", "phone",
+                    "department_code", "department", "enrollment_year", "semester", "active",
+                    "date_registered", "last_login"));
+
+            writeRows(connection, executor, 3, "past loans and fines", loanCount, this::generatePastLoans,
+                new TableSpec("borrowing_history", "id", "book_id", "student_id", "borrow_date", "due_date",
+                    "return_date", "is_returned"),
+                new TableSpec("fines", "loan_id", "student_id", "book_id", "fine_amount", "days_overdue",
+                    "is_paid", "payment_date", "calculated_date"));
+
+            writeRows(connection, executor, 4, "past reservations", reservationCount, this::generatePastReservations,
+                new TableSpec("reservations", "book_id", "student_id", "reservation_date", "status",
+                    "notification_sent", "expiry_date", "fulfillment_date", "queue_position"));
+
+            long[] pointTotals = new long[studentCount + 1];
+            writeRows(connection, executor, 5, "point transactions", pointTransactionCount, this::generatePointTransactions,
+                new TableSpec("point_transactions", "student_id", "points", "reason", "transaction_date")
+                    .summingInto(pointTotals, 0, 1));
+
+            writeCurrentCirculation(connection);
+            writeStudentPoints(connection, pointTotals);
+
+            connection.setAutoCommit(true);
+            recreateIndexes(connection, indexes);
+
+            stmt = connection.createStatement();
+            stmt.execute("ANALYZE");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.close();
+
+            System.out.printf("Dataset generated in %.1f s%n", (System.nanoTime() - start) / 1e9);
+            DatabasePopulator.printDatabaseSummary(connection);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d books, %,d students, %,d loans, %,d reservations, %,d point transactions " +
+            "(seed=%d, threads=%d, book skew=%.2f, student skew=%.2f)",
+            bookCount, studentCount, loanCount, reservationCount, pointTransactionCount,
+            seed, threads, bookSkew, studentSkew);
+    }
+
+    // ------------------------------------------------------------------
+    // Row generators: each fills the rows of one chunk from its own random stream
+    // ------------------------------------------------------------------
+
+    private void generateBooks(long first, int count, SplittableRandom random, List<List<Object[]>> out) {
+        List<Object[]> books = out.get(0);
+        for (int i = 0; i < count; i++) {
+            int id = (int) (first + i) + 1;
+            String category = DatabasePopulator.CATEGORIES[random.nextInt(DatabasePopulator.CATEGORIES.length)];
+            String title = titles[random.nextInt(titles.length)];
+            if (random.nextInt(10) < 7) {
+                title += " Vol. " + (1 + random.nextInt(30));
+            }
+
+            // Popular books collect more ratings
+            int rank = bookRank(id);
+            int ratingCount = random.nextInt(1 + (int) (200 / Math.sqrt(rank)));
+            double totalRating = ratingCount * (2.5 + random.nextInt(26) / 10.0);
+
+            books.add(new Object[] {
+                id, isbn(id), title, authorName(random), 1900 + random.nextInt(125), category,
+                1, totalRating, ratingCount,
+                category.charAt(0) + "-" + (1 + random.nextInt(50)) + "-" + (char) ('A' + random.nextInt(26)),
+                referenceDate.minusDays(random.nextInt(historyDays)).toString()
+            });
+        }
+    }
+
+    private void generateStudents(long first, int count, SplittableRandom random, List<List<Object[]>> out) {
+        List<Object[]> students = out.get(0);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (first + i);
+            int department = index % DatabasePopulator.DEPARTMENTS.length;
+            int year = 20 + (index / DatabasePopulator.DEPARTMENTS.length) % 5;
+            String firstName = DatabasePopulator.STUDENT_FIRST_NAMES[random.nextInt(DatabasePopulator.STUDENT_FIRST_NAMES.length)];
+            String lastName = DatabasePopulator.STUDENT_LAST_NAMES[random.nextInt(DatabasePopulator.STUDENT_LAST_NAMES.length)];
+
+            students.add(new Object[] {
+                index + 1, studentUid(index), firstName, lastName,
+                firstName.toLowerCase() + "." + lastName.toLowerCase() + index + "@university.edu",
+                "555-" + (100 + random.nextInt(900)) + "-" + (1000 + random.nextInt(9000)),
+                DatabasePopulator.DEPT_CODES[department], DatabasePopulator.DEPARTMENTS[department],
+                "20" + year, 1 + random.nextInt(8), 1,
+                referenceDate.minusDays(historyDays + random.nextInt(365)).toString(),
+                referenceDate.minusDays(random.nextInt(30)).toString()
+            });
+        }
+    }
+
+    /**
+     * Returned loans spread over the history window, ending a month before the reference date;
+     * late returns get a fine like FineManager would have recorded
+     */
+    private void generatePastLoans(long first, int count, SplittableRandom random, List<List<Object[]>> out) {
+        List<Object[]> loans = out.get(0);
+        List<Object[]> fines = out.get(1);
+        int window = historyDays - 30;
+
+        for (int i = 0; i < count; i++) {
+            long loanId = first + i + 1;
+            int bookId = popularBook(random);
+            int studentId = activeStudent(random);
+            LocalDate borrowDate = referenceDate.minusDays(30 + random.nextInt(window));
+            LocalDate dueDate = borrowDate.plusDays(LOAN_PERIOD_DAYS);
+
+            boolean late = random.nextDouble() < lateReturnRate;
+            LocalDate returnDate = late
+                ? dueDate.plusDays(1 + random.nextInt(30))
+                : borrowDate.plusDays(1 + random.nextInt(LOAN_PERIOD_DAYS));
+
+            loans.add(new Object[] {
+                loanId, bookId, studentId, borrowDate.toString(), dueDate.toString(), returnDate.toString(), 1
+            });
+
+            if (late) {
+                int daysOverdue = (int) (returnDate.toEpochDay() - dueDate.toEpochDay());
+                boolean paid = random.nextInt(100) < 95;
+                fines.add(new Object[] {
+                    loanId, studentId, bookId, Math.min(daysOverdue * DAILY_FINE_RATE, MAXIMUM_FINE), daysOverdue,
+                    paid ? 1 : 0, paid ? returnDate.plusDays(random.nextInt(10)).toString() : null, returnDate.toString()
+                });
+            }
+        }
+    }
+
+    /**
+     * Reservations that have already been fulfilled, expired or cancelled
+     */
+    private void generatePastReservations(long first, int count, SplittableRandom random, List<List<Object[]>> out) {
+        List<Object[]> reservations = out.get(0);
+        for (int i = 0; i < count; i++) {
+            LocalDate reserved = referenceDate.minusDays(30 + random.nextInt(historyDays - 30));
+            LocalDate expiry = reserved.plusDays(3);
+            int outcome = random.nextInt(100);
+            String status = outcome < 70 ? "FULFILLED" : outcome < 85 ? "EXPIRED" : "CANCELLED";
+
+            reservations.add(new Object[] {
+                popularBook(random), activeStudent(random), reserved.toString(), status, 1,
+                expiry.toString(), "FULFILLED".equals(status) ? reserved.plusDays(random.nextInt(3)).toString() : null, null
+            });
+        }
+    }
+
+    private void generatePointTransactions(long first, int count, SplittableRandom random, List<List<Object[]>> out) {
+        List<Object[]> transactions = out.get(0);
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(100);
+            int activity = 0;
+            while (roll >= ACTIVITY_WEIGHTS[activity]) {
+                roll -= ACTIVITY_WEIGHTS[activity];
+                activity++;
+            }
+
+            transactions.add(new Object[] {
+                activeStudent(random), ACTIVITY_POINTS[activity], "Activity: " + ACTIVITY_TYPES[activity],
+                referenceDate.minusDays(random.nextInt(historyDays)).atTime(random.nextInt(24), random.nextInt(60)).toString()
+            });
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Serial phases
+    // ------------------------------------------------------------------
+
+    /**
+     * Lends the configured share of books (popular ones first) and queues waiting reservations
+     * on the most wanted lent books. Some loans are already overdue.
+     */
+    private void writeCurrentCirculation(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        SplittableRandom random = chunkRandom(6, 0);
+        int activeLoans = (int) Math.min(bookCount, Math.round(bookCount * activeLoanRate));
+        BitSet lent = new BitSet(bookCount + 1);
+
+        TableSpec loans = new TableSpec("borrowing_history", "id", "book_id", "student_id", "borrow_date",
+            "due_date", "return_date", "is_returned");
+        List<Object[]> loanRows = new ArrayList<>();
+        PreparedStatement updateBook = connection.prepareStatement(
+            "UPDATE books SET is_available = 0, borrower_uid = ?, due_date = ? WHERE id = ?"
+        );
+
+        long loanId = loanCount;
+        int attempts = 0;
+        for (int lentCount = 0; lentCount < activeLoans; attempts++) {
+            // Fall back to uniform picks once the popular head is exhausted
+            int bookId = attempts < activeLoans * 4 ? popularBook(random) : 1 + random.nextInt(bookCount);
+            if (lent.get(bookId)) {
+                continue;
+            }
+            lent.set(bookId);
+            lentCount++;
+
+            int studentId = activeStudent(random);
+            LocalDate borrowDate = referenceDate.minusDays(random.nextInt(30));
+            LocalDate dueDate = borrowDate.plusDays(LOAN_PERIOD_DAYS);
+            loanRows.add(new Object[] {
+                ++loanId, bookId, studentId, borrowDate.toString(), dueDate.toString(), null, 0
+            });
+
+            updateBook.setString(1, studentUid(studentId - 1));
+            updateBook.setString(2, dueDate.toString());
+            updateBook.setInt(3, bookId);
+            updateBook.addBatch();
+
+            if (loanRows.size() == CHUNK_ROWS) {
+                loans.insert(connection, loanRows);
+                updateBook.executeBatch();
+                connection.commit();
+                loanRows.clear();
+            }
+        }
+        loans.insert(connection, loanRows);
+        updateBook.executeBatch();
+        updateBook.close();
+        loans.close();
+
+        // Waiting lists: hot books that are out get the longest queues
+        TableSpec reservations = new TableSpec("reservations", "book_id", "student_id", "reservation_date",
+            "status", "notification_sent", "expiry_date", "fulfillment_date", "queue_position");
+        List<Object[]> reservationRows = new ArrayList<>();
+        Map<Integer, Integer> queueLengths = new LinkedHashMap<>();
+        long waiting = Math.max(1, reservationCount / 50);
+
+        for (long i = 0; i < waiting && activeLoans > 0; i++) {
+            int bookId = popularBook(random);
+            if (!lent.get(bookId)) {
+                continue;
+            }
+            int position = queueLengths.merge(bookId, 1, Integer::sum);
+            if (position > 10) {
+                continue;
+            }
+            reservationRows.add(new Object[] {
+                bookId, activeStudent(random), referenceDate.minusDays(random.nextInt(20)).toString(),
+                "WAITING", 0, null, null, position
+            });
+        }
+        reservations.insert(connection, reservationRows);
+        reservations.close();
+        connection.commit();
+
+        System.out.printf("Wrote %,d active loans and %,d waiting reservations in %.1f s%n",
+            activeLoans, reservationRows.size(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Writes each student's point total and level, computed the way GamificationSystem does,
+     * the activity counters derived from the point transactions and the unpaid fine balances
+     */
+    private void writeStudentPoints(Connection connection, long[] pointTotals) throws SQLException {
+        TableSpec points = new TableSpec("student_points", "student_id", "total_points", "level");
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int studentId = 1; studentId <= studentCount; studentId++) {
+            long total = pointTotals[studentId];
+            if (total == 0) {
+                continue;
+            }
+            rows.add(new Object[] { studentId, total, 1 + (int) Math.sqrt(total / 100.0) });
+            if (rows.size() == CHUNK_ROWS) {
+                points.insert(connection, rows);
+                rows.clear();
+            }
+        }
+        points.insert(connection, rows);
+        points.close();
+
+        // Achievement thresholds read the per-type counters, not the transactions, and balance
+        // checks read the per-student totals, not the fines
+        Statement stmt = connection.createStatement();
+        SchemaMigrator.rebuildActivityCounts(stmt);
+        SchemaMigrator.rebuildStudentBalances(stmt);
+        stmt.close();
+        connection.commit();
+    }
+
+    // ------------------------------------------------------------------
+    // Parallel chunk pipeline
+    // ------------------------------------------------------------------
+
+    /**
+     * Generates rows for one chunk; out holds one list per target table of the phase
+     */
+    private interface ChunkGenerator {
+        void generate(long first, int count, SplittableRandom random, List<List<Object[]>> out);
+    }
+
+    /**
+     * Generates totalRows rows in parallel chunks and writes them in chunk order,
+     * one transaction per chunk
+     */
+    private void writeRows(Connection connection, ExecutorService executor, int phase, String label,
+                           long totalRows, ChunkGenerator generator, TableSpec... tables) throws SQLException {
+        long start = System.nanoTime();
+        long chunkCount = (totalRows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        int window = threads * 2; // Chunks generated ahead of the writer
+        Deque<Future<List<List<Object[]>>>> pending = new ArrayDeque<>();
+        long submitted = 0;
+        long written = 0;
+
+        try {
+            while (written < chunkCount) {
+                while (submitted < chunkCount && pending.size() < window) {
+                    long chunk = submitted++;
+                    long first = chunk * CHUNK_ROWS;
+                    int count = (int) Math.min(CHUNK_ROWS, totalRows - first);
+                    pending.add(executor.submit(() -> {
+                        List<List<Object[]>> out = new ArrayList<>();
+                        for (int t = 0; t < tables.length; t++) {
+                            out.add(new ArrayList<>(count));
+                        }
+                        generator.generate(first, count, chunkRandom(phase, chunk), out);
+                        return out;
+                    }));
+                }
+
+                List<List<Object[]>> rows = pending.poll().get();
+                for (int t = 0; t < tables.length; t++) {
+                    tables[t].insert(connection, rows.get(t));
+                }
+                connection.commit();
+                written++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while generating " + label, e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Error generating " + label + ": " + e.getCause(), e.getCause());
+        } finally {
+            for (Future<?> future : pending) {
+                future.cancel(true);
+            }
+            for (TableSpec table : tables) {
+                table.close();
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d %s in %.1f s (%,.0f rows/s)%n", totalRows, label, seconds, totalRows / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * A target table and its multi-row INSERT, prepared once per phase
+     */
+    private static class TableSpec {
+        private final String table;
+        private final String[] columns;
+        private final int rowsPerStatement;
+        private PreparedStatement fullStatement;
+        private long[] sumTarget;  // Optional running totals of one column keyed by another
+        private int sumKeyColumn;
+        private int sumValueColumn;
+
+        TableSpec(String table, String... columns) {
+            this.table = table;
+            this.columns = columns;
+            this.rowsPerStatement = Math.max(1, Math.min(500, MAX_PARAMETERS_PER_STATEMENT / columns.length));
+        }
+
+        /**
+         * Accumulates the value column into target[key column] for every written row
+         */
+        TableSpec summingInto(long[] target, int keyColumn, int valueColumn) {
+            this.sumTarget = target;
+            this.sumKeyColumn = keyColumn;
+            this.sumValueColumn = valueColumn;
+            return this;
+        }
+
+        void insert(Connection connection, List<Object[]> rows) throws SQLException {
+            int from = 0;
+            while (rows.size() - from >= rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = connection.prepareStatement(insertSql(rowsPerStatement));
+                }
+                bind(fullStatement, rows, from, rowsPerStatement);
+                fullStatement.executeUpdate();
+                from += rowsPerStatement;
+            }
+            if (from < rows.size()) {
+                PreparedStatement tail = connection.prepareStatement(insertSql(rows.size() - from));
+                bind(tail, rows, from, rows.size() - from);
+                tail.executeUpdate();
+                tail.close();
+            }
+
+            if (sumTarget != null) {
+                for (Object[] row : rows) {
+                    sumTarget[((Number) row[sumKeyColumn]).intValue()] += ((Number) row[sumValueColumn]).longValue();
+                }
+            }
+        }
+
+        void close() throws SQLException {
+            if (fullStatement != null) {
+                fullStatement.close();
+                fullStatement = null;
+            }
+        }
+
+        private void bind(PreparedStatement statement, List<Object[]> rows, int from, int count) throws SQLException {
+            int index = 1;
+            for (int r = from; r < from + count; r++) {
+                for (Object value : rows.get(r)) {
+                    statement.setObject(index++, value);
+                }
+            }
+        }
+
+        private String insertSql(int rowCount) {
+            String placeholders = "(" + "?, ".repeat(columns.length - 1) + "?)";
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+            for (int i = 0; i < rowCount; i++) {
+                sql.append(i == 0 ? "" : ", ").append(placeholders);
+            }
+            return sql.toString();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------
+
+    /**
+     * Random stream of one chunk, independent of which thread generates it
+     */
+    private SplittableRandom chunkRandom(int phase, long chunk) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + phase * 0xBF58476D1CE4E5B9L + chunk);
+    }
+
+    /**
+     * Draws a book id; popularity ranks are scattered over the ids so hot books are not all old ones
+     */
+    private int popularBook(SplittableRandom random) {
+        return (int) (((bookPopularity.next(random) - 1) * bookStride) % bookCount) + 1;
+    }
+
+    /**
+     * Popularity rank of a book id (inverse of popularBook's scattering)
+     */
+    private int bookRank(int bookId) {
+        return (int) (((bookId - 1) * bookStrideInverse) % bookCount) + 1;
+    }
+
+    private int activeStudent(SplittableRandom random) {
+        return (int) (((studentActivity.next(random) - 1) * studentStride) % studentCount) + 1;
+    }
+
+    private static String authorName(SplittableRandom random) {
+        // Half of the books come from the well-known authors, the rest from a long tail of names
+        if (random.nextBoolean()) {
+            return DatabasePopulator.AUTHORS[random.nextInt(DatabasePopulator.AUTHORS.length)];
+        }
+        return DatabasePopulator.STUDENT_FIRST_NAMES[random.nextInt(DatabasePopulator.STUDENT_FIRST_NAMES.length)] + " "
+            + DatabasePopulator.STUDENT_LAST_NAMES[random.nextInt(DatabasePopulator.STUDENT_LAST_NAMES.length)];
+    }
+
+    /**
+     * ISBN-13 with the 978 prefix and a valid check digit, unique per book id
+     */
+    private static String isbn(int bookId) {
+        String digits = "978" + String.format("%09d", bookId);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Student UID in the YYDEPTXXXXX format accepted by StudentAuth, unique per student index
+     */
+    private static String studentUid(int index) {
+        int combinations = DatabasePopulator.DEPT_CODES.length * 5;
+        int department = index % DatabasePopulator.DEPT_CODES.length;
+        int year = 20 + (index / DatabasePopulator.DEPT_CODES.length) % 5;
+        return year + DatabasePopulator.DEPT_CODES[department] + String.format("%05d", index / combinations);
+    }
+
+    /**
+     * A multiplier coprime with n, used to scatter ranks over ids
+     */
+    private static long coprimeStride(int n) {
+        if (n <= 2) {
+            return 1;
+        }
+        long stride = ((long) (n * 0.6180339887)) | 1;
+        while (BigInteger.valueOf(stride).gcd(BigInteger.valueOf(n)).intValue() != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static String[] concat(String[]... arrays) {
+        List<String> all = new ArrayList<>();
+        for (String[] array : arrays) {
+            all.addAll(List.of(array));
+        }
+        return all.toArray(new String[0]);
+    }
+
+    private static Map<String, String> dropSecondaryIndexes(Connection connection) throws SQLException {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT name, sql FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL");
+        while (rs.next()) {
+            indexes.put(rs.getString("name"), rs.getString("sql"));
+        }
+        rs.close();
+
+        for (String name : indexes.keySet()) {
+            stmt.execute("DROP INDEX " + name);
+        }
+        stmt.close();
+        return indexes;
+    }
+
+    private static void recreateIndexes(Connection connection, Map<String, String> indexes) throws SQLException {
+        long start = System.nanoTime();
+        Statement stmt = connection.createStatement();
+        for (String sql : indexes.values()) {
+            stmt.execute(sql);
+        }
+        stmt.close();
+        System.out.printf("Rebuilt %d indexes in %.1f s%n", indexes.size(), (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void deleteDatabaseFiles(String databasePath) {
+        for (String suffix : new String[] {"", "-wal", "-shm", "-journal"}) {
+            File file = new File(databasePath + suffix);
+            if (file.exists() && !file.delete()) {
+                System.err.println("Could not delete " + file);
+            }
+        }
+    }
+}
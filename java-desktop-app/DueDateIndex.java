@@ -0,0 +1,135 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DueDateIndex keeps the books that are currently on loan ordered by due date, so overdue and
+ * due-soon lists are range scans over the loans instead of scans over the whole catalog.
+ *
+ * The index is safe for concurrent use: adding or removing one book is atomic, and range
+ * queries never lock (they see a weakly consistent view while other loans change).
+ */
+public class DueDateIndex {
+    private final NavigableSet<Entry> loans;                  // Loans by due date, then in loan order
+    private final ConcurrentHashMap<Book, Entry> entries;     // Book -> the entry it is filed under
+    private final AtomicLong nextSequence;                    // Orders loans due on the same day
+
+    /**
+     * Creates an empty index
+     */
+    public DueDateIndex() {
+        this.loans = new ConcurrentSkipListSet<>();
+        this.entries = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+    }
+
+    /**
+     * Files a borrowed book under its due date. Books that are available or have no due date are ignored.
+     * @param book The borrowed book
+     */
+    public void add(Book book) {
+        LocalDate dueDate = book.getDueDate();
+        if (book.isAvailable() || dueDate == null) {
+            return;
+        }
+
+        // compute keeps concurrent changes to the same book from interleaving
+        entries.compute(book, (b, previous) -> {
+            if (previous != null) {
+                loans.remove(previous);
+            }
+            Entry entry = new Entry(b, dueDate, nextSequence.getAndIncrement());
+            loans.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Removes a book from the index (when it is returned or removed from the library)
+     * @param book The book to remove
+     */
+    public void remove(Book book) {
+        entries.computeIfPresent(book, (b, entry) -> {
+            loans.remove(entry);
+            return null;
+        });
+    }
+
+    /**
+     * Gets the books due before a date
+     * @param date The first date on which a loan is not overdue (normally today)
+     * @return Overdue books, earliest due date first
+     */
+    public List<Book> dueBefore(LocalDate date) {
+        return collect(loans.headSet(Entry.first(date), false));
+    }
+
+    /**
+     * Gets the books due within a date range
+     * @param from First due date to include
+     * @param to Last due date to include
+     * @return Books due in the range, earliest due date first
+     */
+    public List<Book> dueBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        return collect(loans.subSet(Entry.first(from), true, Entry.last(to), true));
+    }
+
+    /**
+     * Gets the number of books on loan
+     * @return The number of indexed loans
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static List<Book> collect(NavigableSet<Entry> range) {
+        List<Book> results = new ArrayList<>();
+        for (Entry entry : range) {
+            results.add(entry.book);
+        }
+        return results;
+    }
+
+    /**
+     * A loan's place in the order; the due date is copied so the entry can still be found
+     * after the book's due date has changed
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final Book book;
+        private final LocalDate dueDate;
+        private final long sequence;
+
+        Entry(Book book, LocalDate dueDate, long sequence) {
+            this.book = book;
+            this.dueDate = dueDate;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Bound sorting before every loan due on a date
+         */
+        static Entry first(LocalDate dueDate) {
+            return new Entry(null, dueDate, Long.MIN_VALUE);
+        }
+
+        /**
+         * Bound sorting after every loan due on a date
+         */
+        static Entry last(LocalDate dueDate) {
+            return new Entry(null, dueDate, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byDate = dueDate.compareTo(other.dueDate);
+            return byDate != 0 ? byDate : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -9,59 +9,13 @@ import java.util.List;
  * Manages library events such as book clubs, author readings, and workshops
  */
 public class EventManager {
-    private Connection connection;
+    private ConnectionPool pool;
     
     /**
-     * Creates a new EventManager with database connection
+     * Creates a new EventManager backed by the database connection pool
      */
-    public EventManager(Connection connection) {
-        this.connection = connection;
-        createEventTables();
-    }
-    
-    /**
-     * Creates the necessary tables for event management
-     */
-    private void createEventTables() {
-        try {
-            Statement stmt = connection.createStatement();
-            
-            // Create events table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS events (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "title TEXT NOT NULL, " +
-                "description TEXT, " +
-                "event_type TEXT NOT NULL, " + // 'BOOK_CLUB', 'AUTHOR_EVENT', 'WORKSHOP', 'STUDY_GROUP'
-                "start_date TEXT NOT NULL, " +
-                "end_date TEXT NOT NULL, " +
-                "location TEXT, " +
-                "max_participants INTEGER, " +
-                "organizer_id INTEGER, " +
-                "created_at TEXT NOT NULL, " +
-                "FOREIGN KEY (organizer_id) REFERENCES students(id)" +
-                ")"
-            );
-            
-            // Create event participants table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS event_participants (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "event_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "registration_date TEXT NOT NULL, " +
-                "attendance_status TEXT DEFAULT 'REGISTERED', " + // 'REGISTERED', 'ATTENDED', 'CANCELLED'
-                "FOREIGN KEY (event_id) REFERENCES events(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "UNIQUE(event_id, student_id)" +
-                ")"
-            );
-            
-            stmt.close();
-        } catch (SQLException e) {
-            System.err.println("Error creating event tables: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public EventManager(ConnectionPool pool) {
+        this.pool = pool;
     }
     
     /**
@@ -79,7 +33,7 @@ public class EventManager {
     public int createEvent(String title, String description, String eventType, 
                           LocalDateTime startDate, LocalDateTime endDate, 
                           String location, int maxParticipants, int organizerId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO events (title, description, event_type, start_date, end_date, " +
                 "location, max_participants, organizer_id, created_at) " +
@@ -134,7 +88,7 @@ public class EventManager {
     public boolean updateEvent(int eventId, String title, String description, String eventType,
                              LocalDateTime startDate, LocalDateTime endDate,
                              String location, int maxParticipants) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE events SET title = ?, description = ?, event_type = ?, " +
                 "start_date = ?, end_date = ?, location = ?, max_participants = ? " +
@@ -168,7 +122,7 @@ public class EventManager {
      * @return true if successful
      */
     public boolean deleteEvent(int eventId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // First delete all registrations
             PreparedStatement stmt1 = connection.prepareStatement(
                 "DELETE FROM event_participants WHERE event_id = ?"
@@ -203,7 +157,7 @@ public class EventManager {
      * @return true if registration successful, false if failed
      */
     public boolean registerForEvent(int eventId, int studentId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Check if event is full
             PreparedStatement checkStmt = connection.prepareStatement(
                 "SELECT count(*) as participant_count, max_participants " +
@@ -259,7 +213,7 @@ public class EventManager {
      * @return true if cancellation successful
      */
     public boolean cancelRegistration(int eventId, int studentId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE event_participants SET attendance_status = 'CANCELLED' " +
                 "WHERE event_id = ? AND student_id = ?"
@@ -287,7 +241,7 @@ public class EventManager {
      * @return true if attendance recorded successfully
      */
     public boolean recordAttendance(int eventId, int studentId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE event_participants SET attendance_status = 'ATTENDED' " +
                 "WHERE event_id = ? AND student_id = ?"
@@ -315,7 +269,7 @@ public class EventManager {
     public List<Event> getUpcomingEvents() {
         List<Event> events = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT e.*, s.first_name || ' ' || s.last_name as organizer_name, " +
                 "(SELECT COUNT(*) FROM event_participants ep WHERE ep.event_id = e.id AND ep.attendance_status != 'CANCELLED') as participant_count " +
@@ -351,7 +305,7 @@ public class EventManager {
     public List<Event> getStudentEvents(int studentId) {
         List<Event> events = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT e.*, s.first_name || ' ' || s.last_name as organizer_name, " +
                 "(SELECT COUNT(*) FROM event_participants ep WHERE ep.event_id = e.id AND ep.attendance_status != 'CANCELLED') as participant_count " +
@@ -386,7 +340,7 @@ public class EventManager {
      * @return Event object or null if not found
      */
     public Event getEvent(int eventId) {
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT e.*, s.first_name || ' ' || s.last_name as organizer_name, " +
                 "(SELECT COUNT(*) FROM event_participants ep WHERE ep.event_id = e.id AND ep.attendance_status != 'CANCELLED') as participant_count " +
@@ -424,7 +378,7 @@ public class EventManager {
     public List<EventParticipant> getEventParticipants(int eventId) {
         List<EventParticipant> participants = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT ep.*, s.uid, s.first_name, s.last_name " +
                 "FROM event_participants ep " +
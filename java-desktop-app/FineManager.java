@@ -1,6 +1,5 @@
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,64 +7,18 @@ import java.util.List;
  * Manages overdue fines for books in the library system
  */
 public class FineManager {
-    private Connection connection;
+    private ConnectionPool pool;
     private double dailyFineRate = 0.50; // Default fine rate: 50 cents per day
     private int gracePeriodDays = 3;     // Grace period before fines start
     private double maximumFine = 20.0;   // Maximum fine per book
+    private double borrowingBlockBalance = 0;    // Unpaid balance at which a student may not borrow (0: never)
+    private long accrualCursor;          // Last loan ID accrued by accrueNextFines, guarded by this
     
     /**
-     * Creates a new FineManager with database connection
+     * Creates a new FineManager backed by the database connection pool
      */
-    public FineManager(Connection connection) {
-        this.connection = connection;
-        createFinesTable();
-    }
-    
-    /**
-     * Creates the fines table if it doesn't exist
-     */
-    private void createFinesTable() {
-        try {
-            Statement stmt = connection.createStatement();
-            
-            // Create fines table to track all fines
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS fines (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "loan_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "book_id INTEGER NOT NULL, " +
-                "fine_amount REAL NOT NULL, " +
-                "days_overdue INTEGER NOT NULL, " +
-                "is_paid BOOLEAN DEFAULT 0, " +
-                "payment_date TEXT, " +
-                "calculated_date TEXT DEFAULT CURRENT_TIMESTAMP, " +
-                "notes TEXT, " +
-                "FOREIGN KEY (loan_id) REFERENCES borrowing_history(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "FOREIGN KEY (book_id) REFERENCES books(id)" +
-                ")"
-            );
-            
-            // Create view for unpaid fines
-            stmt.execute(
-                "CREATE VIEW IF NOT EXISTS unpaid_fines AS " +
-                "SELECT f.id as fine_id, f.fine_amount, f.days_overdue, " +
-                "s.id as student_id, s.uid, s.first_name, s.last_name, " +
-                "b.id as book_id, b.title, b.isbn, " +
-                "h.due_date, h.id as loan_id " +
-                "FROM fines f " +
-                "JOIN borrowing_history h ON f.loan_id = h.id " +
-                "JOIN books b ON f.book_id = b.id " +
-                "JOIN students s ON f.student_id = s.id " +
-                "WHERE f.is_paid = 0"
-            );
-            
-            stmt.close();
-        } catch (SQLException e) {
-            System.err.println("Error creating fines table: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public FineManager(ConnectionPool pool) {
+        this.pool = pool;
     }
     
     /**
@@ -99,87 +52,173 @@ public class FineManager {
     }
     
     /**
-     * Calculates and records fines for all overdue books
+     * Sets the unpaid balance at which a student is blocked from borrowing. Blocking is off
+     * (balance 0) until a balance is set.
+     * @param balance Balance in currency units, or 0 to never block
+     */
+    public void setBorrowingBlockBalance(double balance) {
+        if (balance >= 0) {
+            this.borrowingBlockBalance = balance;
+        }
+    }
+    
+    /**
+     * Calculates fines for all overdue books in one transaction: fines still accruing on
+     * unreturned loans are brought up to date, and loans that became overdue get a new fine.
+     * Both steps are single set-based statements, capped at the maximum fine and starting
+     * after the grace period. Paid fines are left as they are. The balances of the students
+     * with overdue loans are recomputed in the same transaction.
      * @return Number of new fines recorded
      */
     public int calculateAllFines() {
-        int newFinesCount = 0;
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int newFinesCount = accrueFines(connection, LocalDate.now(), 0, Long.MAX_VALUE);
+                connection.commit();
+                return newFinesCount;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error calculating fines: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * Accrues the fines of the next overdue loans, in loan order, in one transaction. Successive
+     * calls walk through all overdue loans and then start over (used by the maintenance scheduler).
+     * @param maxLoans Maximum number of overdue loans to process
+     * @return Overdue loans processed; fewer than maxLoans once the last ones have been reached
+     * @throws SQLException if the fines could not be accrued (nothing was written)
+     */
+    public synchronized int accrueNextFines(int maxLoans) throws SQLException {
+        LocalDate today = LocalDate.now();
         
-        try {
-            // Find all overdue loans that don't have an associated fine yet
-            PreparedStatement pstmt = connection.prepareStatement(
-                "SELECT h.id as loan_id, h.student_id, h.book_id, h.due_date " +
-                "FROM borrowing_history h " +
-                "LEFT JOIN fines f ON h.id = f.loan_id " +
-                "WHERE h.is_returned = 0 " +
-                "AND h.due_date < ? " +
-                "AND f.id IS NULL"
-            );
-            
-            pstmt.setString(1, LocalDate.now().toString());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                int loanId = rs.getInt("loan_id");
-                int studentId = rs.getInt("student_id");
-                int bookId = rs.getInt("book_id");
-                LocalDate dueDate = LocalDate.parse(rs.getString("due_date"));
-                
-                // Calculate days overdue and fine amount
-                long daysOverdue = ChronoUnit.DAYS.between(dueDate, LocalDate.now());
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement loanStmt = connection.prepareStatement(
+                    "SELECT id FROM borrowing_history " +
+                    "WHERE is_returned = 0 AND due_date < ? AND id > ? " +
+                    "ORDER BY id LIMIT ?"
+                );
                 
-                // Apply grace period
-                daysOverdue = Math.max(0, daysOverdue - gracePeriodDays);
+                loanStmt.setString(1, today.minusDays(gracePeriodDays).toString());
+                loanStmt.setLong(2, accrualCursor);
+                loanStmt.setInt(3, maxLoans);
+                ResultSet rs = loanStmt.executeQuery();
                 
-                if (daysOverdue > 0) {
-                    double fineAmount = daysOverdue * dailyFineRate;
-                    
-                    // Cap at maximum fine amount
-                    fineAmount = Math.min(fineAmount, maximumFine);
-                    
-                    // Record the fine
-                    if (recordFine(loanId, studentId, bookId, fineAmount, daysOverdue)) {
-                        newFinesCount++;
+                long firstLoanId = -1;
+                long lastLoanId = -1;
+                int loans = 0;
+                while (rs.next()) {
+                    lastLoanId = rs.getLong("id");
+                    if (firstLoanId < 0) {
+                        firstLoanId = lastLoanId;
                     }
+                    loans++;
+                }
+                rs.close();
+                loanStmt.close();
+                
+                if (loans > 0) {
+                    accrueFines(connection, today, firstLoanId, lastLoanId);
                 }
+                connection.commit();
+                
+                // Start from the first overdue loan again once the end has been reached
+                accrualCursor = loans < maxLoans ? 0 : lastLoanId;
+                return loans;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
-            
-            rs.close();
-            pstmt.close();
-            
-        } catch (SQLException e) {
-            System.err.println("Error calculating fines: " + e.getMessage());
-            e.printStackTrace();
         }
+    }
+    
+    /**
+     * Accrues the fines of the overdue loans whose IDs are in a range, inside the caller's transaction
+     * @return Number of new fines recorded
+     */
+    private int accrueFines(Connection connection, LocalDate today, long firstLoanId, long lastLoanId) throws SQLException {
+        // Loans due before this date are past their grace period
+        String accrualStart = today.minusDays(gracePeriodDays).toString();
+        String daysOverdue = "(CAST(julianday(?) - julianday(h.due_date) AS INTEGER) - ?)";
+        
+        // Bring accruing fines up to date
+        PreparedStatement updateStmt = connection.prepareStatement(
+            "UPDATE fines SET days_overdue = " + daysOverdue + ", " +
+            "fine_amount = MIN(?, " + daysOverdue + " * ?), " +
+            "calculated_date = CURRENT_TIMESTAMP " +
+            "FROM borrowing_history h " +
+            "WHERE h.id = fines.loan_id AND fines.is_paid = 0 " +
+            "AND h.is_returned = 0 AND h.due_date < ? AND h.id BETWEEN ? AND ? " +
+            "AND fines.days_overdue != " + daysOverdue
+        );
+        
+        int index = setDaysOverdue(updateStmt, 1, today);
+        updateStmt.setDouble(index++, maximumFine);
+        index = setDaysOverdue(updateStmt, index, today);
+        updateStmt.setDouble(index++, dailyFineRate);
+        updateStmt.setString(index++, accrualStart);
+        updateStmt.setLong(index++, firstLoanId);
+        updateStmt.setLong(index++, lastLoanId);
+        setDaysOverdue(updateStmt, index, today);
+        updateStmt.executeUpdate();
+        updateStmt.close();
+        
+        // Record fines for loans that don't have one yet
+        PreparedStatement insertStmt = connection.prepareStatement(
+            "INSERT INTO fines (loan_id, student_id, book_id, fine_amount, days_overdue) " +
+            "SELECT h.id, h.student_id, h.book_id, MIN(?, " + daysOverdue + " * ?), " + daysOverdue + " " +
+            "FROM borrowing_history h " +
+            "WHERE h.is_returned = 0 AND h.due_date < ? AND h.id BETWEEN ? AND ? " +
+            "AND NOT EXISTS (SELECT 1 FROM fines f WHERE f.loan_id = h.id)"
+        );
+        
+        insertStmt.setDouble(1, maximumFine);
+        index = setDaysOverdue(insertStmt, 2, today);
+        insertStmt.setDouble(index++, dailyFineRate);
+        index = setDaysOverdue(insertStmt, index, today);
+        insertStmt.setString(index++, accrualStart);
+        insertStmt.setLong(index++, firstLoanId);
+        insertStmt.setLong(index, lastLoanId);
+        int newFinesCount = insertStmt.executeUpdate();
+        insertStmt.close();
+        
+        // Recompute the balances of the students whose fines may have changed
+        PreparedStatement balanceStmt = connection.prepareStatement(
+            "INSERT INTO student_balances (student_id, unpaid_amount, unpaid_count) " +
+            "SELECT student_id, SUM(fine_amount), COUNT(*) FROM fines " +
+            "WHERE is_paid = 0 AND student_id IN (" +
+            "SELECT h.student_id FROM borrowing_history h " +
+            "WHERE h.is_returned = 0 AND h.due_date < ? AND h.id BETWEEN ? AND ?) " +
+            "GROUP BY student_id " +
+            "ON CONFLICT (student_id) DO UPDATE SET " +
+            "unpaid_amount = excluded.unpaid_amount, unpaid_count = excluded.unpaid_count"
+        );
+        
+        balanceStmt.setString(1, accrualStart);
+        balanceStmt.setLong(2, firstLoanId);
+        balanceStmt.setLong(3, lastLoanId);
+        balanceStmt.executeUpdate();
+        balanceStmt.close();
         
         return newFinesCount;
     }
     
     /**
-     * Records a fine in the database
+     * Binds the parameters of one days-overdue expression (today, then the grace period)
+     * @return The index of the next parameter
      */
-    private boolean recordFine(int loanId, int studentId, int bookId, double fineAmount, long daysOverdue) {
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(
-                "INSERT INTO fines (loan_id, student_id, book_id, fine_amount, days_overdue) " +
-                "VALUES (?, ?, ?, ?, ?)"
-            );
-            
-            pstmt.setInt(1, loanId);
-            pstmt.setInt(2, studentId);
-            pstmt.setInt(3, bookId);
-            pstmt.setDouble(4, fineAmount);
-            pstmt.setLong(5, daysOverdue);
-            
-            int result = pstmt.executeUpdate();
-            pstmt.close();
-            
-            return result > 0;
-        } catch (SQLException e) {
-            System.err.println("Error recording fine: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+    private int setDaysOverdue(PreparedStatement pstmt, int index, LocalDate today) throws SQLException {
+        pstmt.setString(index, today.toString());
+        pstmt.setInt(index + 1, gracePeriodDays);
+        return index + 2;
     }
     
     /**
@@ -189,19 +228,56 @@ public class FineManager {
      * @return true if payment was successful
      */
     public boolean payFine(int fineId, String notes) {
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(
-                "UPDATE fines SET is_paid = 1, payment_date = ?, notes = ? WHERE id = ?"
-            );
-            
-            pstmt.setString(1, LocalDate.now().toString());
-            pstmt.setString(2, notes);
-            pstmt.setInt(3, fineId);
-            
-            int result = pstmt.executeUpdate();
-            pstmt.close();
-            
-            return result > 0;
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement fineStmt = connection.prepareStatement(
+                    "SELECT student_id, fine_amount, is_paid FROM fines WHERE id = ?"
+                );
+                
+                fineStmt.setInt(1, fineId);
+                ResultSet rs = fineStmt.executeQuery();
+                
+                if (!rs.next()) {
+                    rs.close();
+                    fineStmt.close();
+                    return false;
+                }
+                int studentId = rs.getInt("student_id");
+                double fineAmount = rs.getDouble("fine_amount");
+                boolean wasPaid = rs.getBoolean("is_paid");
+                rs.close();
+                fineStmt.close();
+                
+                PreparedStatement pstmt = connection.prepareStatement(
+                    "UPDATE fines SET is_paid = 1, payment_date = ?, notes = ? WHERE id = ?"
+                );
+                
+                pstmt.setString(1, LocalDate.now().toString());
+                pstmt.setString(2, notes);
+                pstmt.setInt(3, fineId);
+                
+                int result = pstmt.executeUpdate();
+                pstmt.close();
+                
+                if (!wasPaid) {
+                    PreparedStatement balanceStmt = connection.prepareStatement(
+                        "UPDATE student_balances SET unpaid_amount = unpaid_amount - ?, unpaid_count = unpaid_count - 1 " +
+                        "WHERE student_id = ?"
+                    );
+                    
+                    balanceStmt.setDouble(1, fineAmount);
+                    balanceStmt.setInt(2, studentId);
+                    balanceStmt.executeUpdate();
+                    balanceStmt.close();
+                }
+                
+                connection.commit();
+                return result > 0;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error paying fine: " + e.getMessage());
             e.printStackTrace();
@@ -216,7 +292,7 @@ public class FineManager {
      * @return Number of fines paid
      */
     public int payAllFines(int studentId, String notes) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement pstmt = connection.prepareStatement(
                 "UPDATE fines SET is_paid = 1, payment_date = ?, notes = ? " +
                 "WHERE student_id = ? AND is_paid = 0"
@@ -226,10 +302,25 @@ public class FineManager {
             pstmt.setString(2, notes);
             pstmt.setInt(3, studentId);
             
-            int result = pstmt.executeUpdate();
-            pstmt.close();
-            
-            return result;
+            connection.setAutoCommit(false);
+            try {
+                int result = pstmt.executeUpdate();
+                pstmt.close();
+                
+                PreparedStatement balanceStmt = connection.prepareStatement(
+                    "UPDATE student_balances SET unpaid_amount = 0, unpaid_count = 0 WHERE student_id = ?"
+                );
+                
+                balanceStmt.setInt(1, studentId);
+                balanceStmt.executeUpdate();
+                balanceStmt.close();
+                
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error paying all fines: " + e.getMessage());
             e.printStackTrace();
@@ -245,7 +336,12 @@ public class FineManager {
     public List<Fine> getUnpaidFinesForStudent(int studentId) {
         List<Fine> fines = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
+            // Most students owe nothing; their balance row answers without the view's joins
+            if (readBalance(connection, studentId, "unpaid_count") == 0) {
+                return fines;
+            }
+            
             PreparedStatement pstmt = connection.prepareStatement(
                 "SELECT * FROM unpaid_fines WHERE student_id = ?"
             );
@@ -287,30 +383,44 @@ public class FineManager {
      * @return Total amount of unpaid fines
      */
     public double getTotalUnpaidFines(int studentId) {
-        double total = 0.0;
-        
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(
-                "SELECT SUM(fine_amount) AS total FROM fines " +
-                "WHERE student_id = ? AND is_paid = 0"
-            );
-            
-            pstmt.setInt(1, studentId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                total = rs.getDouble("total");
-            }
-            
-            rs.close();
-            pstmt.close();
-            
+        try (Connection connection = pool.getConnection()) {
+            return readBalance(connection, studentId, "unpaid_amount");
         } catch (SQLException e) {
             System.err.println("Error getting total fines: " + e.getMessage());
             e.printStackTrace();
+            return 0.0;
+        }
+    }
+    
+    /**
+     * Checks whether a student's unpaid fines block them from borrowing (a single key lookup)
+     * @param studentId The student ID
+     * @return true if a block balance is set and the unpaid balance has reached it
+     */
+    public boolean isBorrowingBlocked(int studentId) {
+        return borrowingBlockBalance > 0 && getTotalUnpaidFines(studentId) >= borrowingBlockBalance;
+    }
+    
+    /**
+     * Reads one column of a student's balance row
+     * @return The value, or 0 if the student has no balance row
+     */
+    private double readBalance(Connection connection, int studentId, String column) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(
+            "SELECT " + column + " FROM student_balances WHERE student_id = ?"
+        );
+        
+        pstmt.setInt(1, studentId);
+        ResultSet rs = pstmt.executeQuery();
+        
+        double value = 0.0;
+        if (rs.next()) {
+            value = rs.getDouble(column);
         }
         
-        return total;
+        rs.close();
+        pstmt.close();
+        return value;
     }
     
     /**
@@ -320,7 +430,7 @@ public class FineManager {
     public List<Fine> getAllUnpaidFines() {
         List<Fine> fines = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
             ResultSet rs = stmt.executeQuery("SELECT * FROM unpaid_fines");
             
@@ -361,7 +471,7 @@ public class FineManager {
     public double getTotalFinesCollected(LocalDate startDate, LocalDate endDate) {
         double total = 0.0;
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement pstmt = connection.prepareStatement(
                 "SELECT SUM(fine_amount) AS total FROM fines " +
                 "WHERE is_paid = 1 " +
@@ -1,7 +1,10 @@
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -9,7 +12,24 @@ import java.util.Map;
  * Manages gamification features like achievements, points, and badges
  */
 public class GamificationSystem {
-    private Connection connection;
+    private static final int EARNED_CACHE_SIZE = 10000; // Students whose earned achievements are kept in memory
+    private static final int POINT_LEDGER_RETENTION_MONTHS = 12; // Point transactions kept before compaction
+    private static final int MONTHLY_SNAPSHOT_YEARS = 2; // Older monthly snapshots are folded into yearly ones
+    
+    private ConnectionPool pool;
+    // Achievement definitions, loaded once: activity type -> achievements by ascending threshold
+    private Map<String, Achievement[]> achievementsByType;
+    // Achievement id -> its bit in the earned sets
+    private Map<Integer, Integer> achievementBits;
+    // Student id -> bits of the achievements they have earned, least recently used evicted first
+    private final Map<Integer, BitSet> earnedCache = new LinkedHashMap<Integer, BitSet>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BitSet> eldest) {
+            return size() > EARNED_CACHE_SIZE;
+        }
+    };
+    // Committed points of every student, ordered for top-N and rank queries
+    private final Leaderboard leaderboard = new Leaderboard();
     
     // Achievement types
     public static final String ACHIEVEMENT_BORROW = "BORROW";
@@ -20,82 +40,20 @@ public class GamificationSystem {
     public static final String ACHIEVEMENT_ONTIME = "ONTIME";
     
     /**
-     * Creates a new GamificationSystem with database connection
+     * Creates a new GamificationSystem backed by the database connection pool
      */
-    public GamificationSystem(Connection connection) {
-        this.connection = connection;
-        createGamificationTables();
+    public GamificationSystem(ConnectionPool pool) {
+        this.pool = pool;
         initializeAchievements();
-    }
-    
-    /**
-     * Creates necessary tables for gamification
-     */
-    private void createGamificationTables() {
-        try {
-            Statement stmt = connection.createStatement();
-            
-            // Create achievements table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS achievements (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "name TEXT NOT NULL, " +
-                "description TEXT NOT NULL, " +
-                "type TEXT NOT NULL, " + // Type of activity: BORROW, RETURN, REVIEW, etc.
-                "threshold INTEGER NOT NULL, " + // How many actions needed to earn
-                "points INTEGER NOT NULL, " + // Points awarded
-                "badge_icon TEXT, " + // Icon filename
-                "badge_color TEXT" + // Badge color
-                ")"
-            );
-            
-            // Create student achievements table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS student_achievements (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "student_id INTEGER NOT NULL, " +
-                "achievement_id INTEGER NOT NULL, " +
-                "date_earned TEXT NOT NULL, " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "FOREIGN KEY (achievement_id) REFERENCES achievements(id), " +
-                "UNIQUE(student_id, achievement_id)" +
-                ")"
-            );
-            
-            // Create student points table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS student_points (" +
-                "student_id INTEGER PRIMARY KEY, " +
-                "total_points INTEGER DEFAULT 0, " +
-                "level INTEGER DEFAULT 1, " +
-                "FOREIGN KEY (student_id) REFERENCES students(id)" +
-                ")"
-            );
-            
-            // Create point transactions table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS point_transactions (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "student_id INTEGER NOT NULL, " +
-                "points INTEGER NOT NULL, " + // Can be positive or negative
-                "reason TEXT NOT NULL, " +
-                "transaction_date TEXT NOT NULL, " +
-                "FOREIGN KEY (student_id) REFERENCES students(id)" +
-                ")"
-            );
-            
-            stmt.close();
-        } catch (SQLException e) {
-            System.err.println("Error creating gamification tables: " + e.getMessage());
-            e.printStackTrace();
-        }
+        loadAchievements();
+        loadLeaderboard();
     }
     
     /**
      * Initialize default achievements if not already present
      */
     private void initializeAchievements() {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             Statement checkStmt = connection.createStatement();
             ResultSet rs = checkStmt.executeQuery("SELECT COUNT(*) as count FROM achievements");
             
@@ -140,6 +98,88 @@ public class GamificationSystem {
         }
     }
     
+    /**
+     * Loads the achievement definitions so activity checks need no query.
+     * Achievements are static once initialized; call again if the table is edited.
+     */
+    public void loadAchievements() {
+        Map<String, List<Achievement>> byType = new HashMap<>();
+        Map<Integer, Integer> bits = new HashMap<>();
+        
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement stmt = connection.prepareStatement("SELECT * FROM achievements ORDER BY threshold, id");
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                Achievement achievement = new Achievement(
+                    rs.getInt("id"), rs.getString("name"), rs.getString("description"), rs.getString("type"),
+                    rs.getInt("threshold"), rs.getInt("points"), rs.getString("badge_icon"), rs.getString("badge_color")
+                );
+                byType.computeIfAbsent(achievement.getType(), t -> new ArrayList<>()).add(achievement);
+                bits.put(achievement.getId(), bits.size());
+            }
+            
+            rs.close();
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error loading achievements: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        Map<String, Achievement[]> sorted = new HashMap<>();
+        for (Map.Entry<String, List<Achievement>> entry : byType.entrySet()) {
+            sorted.put(entry.getKey(), entry.getValue().toArray(new Achievement[0]));
+        }
+        this.achievementsByType = sorted;
+        this.achievementBits = bits;
+        synchronized (earnedCache) {
+            earnedCache.clear();
+        }
+    }
+    
+    /**
+     * Gets the achievements a student has earned, from the cache or the database
+     */
+    private BitSet getEarnedAchievements(Connection connection, int studentId) throws SQLException {
+        synchronized (earnedCache) {
+            BitSet earned = earnedCache.get(studentId);
+            if (earned != null) {
+                return earned;
+            }
+        }
+        
+        BitSet earned = new BitSet(achievementBits.size());
+        PreparedStatement stmt = connection.prepareStatement(
+            "SELECT achievement_id FROM student_achievements WHERE student_id = ?"
+        );
+        stmt.setInt(1, studentId);
+        ResultSet rs = stmt.executeQuery();
+        while (rs.next()) {
+            Integer bit = achievementBits.get(rs.getInt("achievement_id"));
+            if (bit != null) {
+                earned.set(bit);
+            }
+        }
+        rs.close();
+        stmt.close();
+        
+        synchronized (earnedCache) {
+            earnedCache.put(studentId, earned);
+        }
+        return earned;
+    }
+    
+    /**
+     * Drops cached earned achievements, e.g. after a transaction that awarded them rolled back
+     */
+    private void forgetEarnedAchievements(Iterable<Integer> studentIds) {
+        synchronized (earnedCache) {
+            for (Integer studentId : studentIds) {
+                earnedCache.remove(studentId);
+            }
+        }
+    }
+    
     /**
      * Helper method to add an achievement
      */
@@ -163,87 +203,136 @@ public class GamificationSystem {
      * @return List of newly earned achievements
      */
     public List<Achievement> trackActivity(int studentId, String activityType) {
-        List<Achievement> newAchievements = new ArrayList<>();
-        
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Create or update student points record
-            ensureStudentPointsRecord(studentId);
+            ensureStudentPointsRecord(connection, studentId);
             
-            // Count student activities of this type
-            PreparedStatement countStmt = connection.prepareStatement(
-                "SELECT COUNT(*) as count FROM point_transactions " +
-                "WHERE student_id = ? AND reason LIKE ?"
-            );
+            List<Achievement> newAchievements = applyActivity(connection, studentId, activityType);
             
-            countStmt.setInt(1, studentId);
-            countStmt.setString(2, "%" + activityType + "%");
-            ResultSet countRs = countStmt.executeQuery();
+            // Update student level
+            int totalPoints = updateStudentLevel(connection, studentId);
             
-            int activityCount = 0;
-            if (countRs.next()) {
-                activityCount = countRs.getInt("count") + 1; // Add 1 for current activity
+            // Outside a caller's transaction the points are committed already
+            if (connection.getAutoCommit()) {
+                publishStanding(connection, studentId, totalPoints);
             }
-            countRs.close();
-            countStmt.close();
             
-            // Add points transaction for this activity
-            int basePoints = getBasePointsForActivity(activityType);
-            addPointsTransaction(studentId, basePoints, "Activity: " + activityType);
+            return newAchievements;
+        } catch (SQLException e) {
+            System.err.println("Error tracking activity: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Tracks a batch of activities in one transaction (used by {@link ActivityEventQueue}).
+     * Each student's points record is checked and their level recomputed once per batch.
+     * If the batch fails it is rolled back and the activities are retried one by one.
+     * @param events Activities in the order they happened
+     */
+    public void trackActivities(List<ActivityEventQueue.Event> events) {
+        // Group by student, keeping each student's activities in order
+        Map<Integer, List<String>> activitiesByStudent = new LinkedHashMap<>();
+        for (ActivityEventQueue.Event event : events) {
+            activitiesByStudent.computeIfAbsent(event.getStudentId(), id -> new ArrayList<>()).add(event.getActivityType());
+        }
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                Map<Integer, Integer> totals = new LinkedHashMap<>();
+                for (Map.Entry<Integer, List<String>> student : activitiesByStudent.entrySet()) {
+                    int studentId = student.getKey();
+                    ensureStudentPointsRecord(connection, studentId);
+                    for (String activityType : student.getValue()) {
+                        applyActivity(connection, studentId, activityType);
+                    }
+                    totals.put(studentId, updateStudentLevel(connection, studentId));
+                }
+                connection.commit();
+                
+                // The leaderboard only sees points once they are committed
+                for (Map.Entry<Integer, Integer> total : totals.entrySet()) {
+                    publishStanding(connection, total.getKey(), total.getValue());
+                }
+                return;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error tracking " + events.size() + " activities, retrying one by one: " + e.getMessage());
+            forgetEarnedAchievements(activitiesByStudent.keySet());
+        }
+        
+        for (ActivityEventQueue.Event event : events) {
+            trackActivity(event.getStudentId(), event.getActivityType());
+        }
+    }
+    
+    /**
+     * Records one activity: adds its points and awards the achievements whose threshold it reaches.
+     * The caller has ensured the student's points record exists and updates the level afterwards.
+     */
+    private List<Achievement> applyActivity(Connection connection, int studentId, String activityType) throws SQLException {
+        List<Achievement> newAchievements = new ArrayList<>();
+        
+        // Count this activity; the counter is a primary key lookup however long the history is
+        PreparedStatement countStmt = connection.prepareStatement(
+            "INSERT INTO student_activity_counts (student_id, activity_type, count) VALUES (?, ?, 1) " +
+            "ON CONFLICT (student_id, activity_type) DO UPDATE SET count = count + 1 RETURNING count"
+        );
+        
+        countStmt.setInt(1, studentId);
+        countStmt.setString(2, activityType);
+        ResultSet countRs = countStmt.executeQuery();
+        
+        int activityCount = 0;
+        if (countRs.next()) {
+            activityCount = countRs.getInt("count"); // Includes the current activity
+        }
+        countRs.close();
+        countStmt.close();
+        
+        // Add points transaction for this activity
+        int basePoints = getBasePointsForActivity(activityType);
+        addPointsTransaction(connection, studentId, basePoints, "Activity: " + activityType);
+        
+        // Check the achievements of this type whose threshold the count has reached, in memory
+        Achievement[] candidates = achievementsByType.get(activityType);
+        if (candidates == null || candidates.length == 0 || candidates[0].getThreshold() > activityCount) {
+            return newAchievements;
+        }
+        
+        BitSet earned = getEarnedAchievements(connection, studentId);
+        for (Achievement achievement : candidates) {
+            if (achievement.getThreshold() > activityCount) {
+                break;
+            }
+            int bit = achievementBits.get(achievement.getId());
+            if (earned.get(bit)) {
+                continue;
+            }
             
-            // Check for achievements
-            PreparedStatement achievementStmt = connection.prepareStatement(
-                "SELECT * FROM achievements " +
-                "WHERE type = ? AND threshold <= ? AND id NOT IN " +
-                "(SELECT achievement_id FROM student_achievements WHERE student_id = ?)"
+            // Add to student achievements; the unique key ignores one awarded by another process
+            PreparedStatement awardStmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO student_achievements (student_id, achievement_id, date_earned) " +
+                "VALUES (?, ?, ?)"
             );
             
-            achievementStmt.setString(1, activityType);
-            achievementStmt.setInt(2, activityCount);
-            achievementStmt.setInt(3, studentId);
-            
-            ResultSet achievementRs = achievementStmt.executeQuery();
+            awardStmt.setInt(1, studentId);
+            awardStmt.setInt(2, achievement.getId());
+            awardStmt.setString(3, LocalDateTime.now().toString());
+            int awarded = awardStmt.executeUpdate();
+            awardStmt.close();
             
-            while (achievementRs.next()) {
-                // Award achievement
-                int achievementId = achievementRs.getInt("id");
-                String name = achievementRs.getString("name");
-                String description = achievementRs.getString("description");
-                int points = achievementRs.getInt("points");
-                String icon = achievementRs.getString("badge_icon");
-                String color = achievementRs.getString("badge_color");
-                
-                // Add to student achievements
-                PreparedStatement awardStmt = connection.prepareStatement(
-                    "INSERT INTO student_achievements (student_id, achievement_id, date_earned) " +
-                    "VALUES (?, ?, ?)"
-                );
-                
-                awardStmt.setInt(1, studentId);
-                awardStmt.setInt(2, achievementId);
-                awardStmt.setString(3, LocalDateTime.now().toString());
-                awardStmt.executeUpdate();
-                awardStmt.close();
-                
+            if (awarded > 0) {
                 // Add points for achievement
-                addPointsTransaction(studentId, points, "Achievement: " + name);
-                
-                // Add to result list
-                Achievement achievement = new Achievement(
-                    achievementId, name, description, activityType, 
-                    achievementRs.getInt("threshold"), points, icon, color
-                );
+                addPointsTransaction(connection, studentId, achievement.getPoints(), "Achievement: " + achievement.getName());
                 newAchievements.add(achievement);
             }
-            
-            achievementRs.close();
-            achievementStmt.close();
-            
-            // Update student level
-            updateStudentLevel(studentId);
-            
-        } catch (SQLException e) {
-            System.err.println("Error tracking activity: " + e.getMessage());
-            e.printStackTrace();
+            earned.set(bit);
         }
         
         return newAchievements;
@@ -267,7 +356,7 @@ public class GamificationSystem {
     /**
      * Ensures a student has a points record
      */
-    private void ensureStudentPointsRecord(int studentId) throws SQLException {
+    private void ensureStudentPointsRecord(Connection connection, int studentId) throws SQLException {
         PreparedStatement checkStmt = connection.prepareStatement(
             "SELECT student_id FROM student_points WHERE student_id = ?"
         );
@@ -291,9 +380,9 @@ public class GamificationSystem {
     }
     
     /**
-     * Adds a points transaction for a student
+     * Adds a points transaction for a student and adds the points to their total
      */
-    private void addPointsTransaction(int studentId, int points, String reason) throws SQLException {
+    private void addPointsTransaction(Connection connection, int studentId, int points, String reason) throws SQLException {
         // Add transaction
         PreparedStatement transStmt = connection.prepareStatement(
             "INSERT INTO point_transactions (student_id, points, reason, transaction_date) " +
@@ -318,10 +407,35 @@ public class GamificationSystem {
         updateStmt.close();
     }
     
+    /**
+     * Gets a student's points from the ledger: their snapshots plus the transactions not compacted yet.
+     * Matches student_points.total_points; used where no points record should be created.
+     */
+    private int getLedgerPoints(Connection connection, int studentId) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+            "SELECT (SELECT COALESCE(SUM(points), 0) FROM point_snapshots WHERE student_id = ?) + " +
+            "(SELECT COALESCE(SUM(points), 0) FROM point_transactions WHERE student_id = ?) as points"
+        );
+        
+        stmt.setInt(1, studentId);
+        stmt.setInt(2, studentId);
+        ResultSet rs = stmt.executeQuery();
+        
+        int points = 0;
+        if (rs.next()) {
+            points = rs.getInt("points");
+        }
+        
+        rs.close();
+        stmt.close();
+        return points;
+    }
+    
     /**
      * Updates a student's level based on total points
+     * @return The student's total points, or -1 if they have no points record
      */
-    private void updateStudentLevel(int studentId) throws SQLException {
+    private int updateStudentLevel(Connection connection, int studentId) throws SQLException {
         PreparedStatement pointsStmt = connection.prepareStatement(
             "SELECT total_points FROM student_points WHERE student_id = ?"
         );
@@ -329,22 +443,56 @@ public class GamificationSystem {
         pointsStmt.setInt(1, studentId);
         ResultSet rs = pointsStmt.executeQuery();
         
+        int totalPoints = -1;
         if (rs.next()) {
-            int totalPoints = rs.getInt("total_points");
-            int newLevel = calculateLevel(totalPoints);
-            
+            totalPoints = rs.getInt("total_points");
+        }
+        
+        rs.close();
+        pointsStmt.close();
+        
+        if (totalPoints >= 0) {
             PreparedStatement updateStmt = connection.prepareStatement(
                 "UPDATE student_points SET level = ? WHERE student_id = ?"
             );
             
-            updateStmt.setInt(1, newLevel);
+            updateStmt.setInt(1, calculateLevel(totalPoints));
             updateStmt.setInt(2, studentId);
             updateStmt.executeUpdate();
             updateStmt.close();
         }
         
-        rs.close();
-        pointsStmt.close();
+        return totalPoints;
+    }
+    
+    /**
+     * Moves a student on the leaderboard after their new total has been committed.
+     * A student seen for the first time is added with their name, if they are a registered student.
+     * Errors are logged rather than thrown: the points themselves are already saved.
+     */
+    private void publishStanding(Connection connection, int studentId, int totalPoints) {
+        if (totalPoints < 0) {
+            return;
+        }
+        int level = calculateLevel(totalPoints);
+        if (leaderboard.updatePoints(studentId, totalPoints, level)) {
+            return;
+        }
+        
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT first_name || ' ' || last_name as student_name, uid FROM students WHERE id = ?")) {
+            stmt.setInt(1, studentId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                leaderboard.update(studentId, rs.getString("student_name"), rs.getString("uid"), totalPoints, level);
+            }
+            
+            rs.close();
+        } catch (SQLException e) {
+            System.err.println("Error adding student " + studentId + " to the leaderboard: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
     
     /**
@@ -366,28 +514,14 @@ public class GamificationSystem {
         progress.put("level", 1);
         progress.put("nextLevelPoints", 100);
         
-        try {
-            ensureStudentPointsRecord(studentId);
+        try (Connection connection = pool.getConnection()) {
+            int points = getLedgerPoints(connection, studentId);
+            int level = calculateLevel(points);
+            int pointsForNextLevel = (level * level + 1) * 100;
             
-            PreparedStatement stmt = connection.prepareStatement(
-                "SELECT total_points, level FROM student_points WHERE student_id = ?"
-            );
-            
-            stmt.setInt(1, studentId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                int points = rs.getInt("total_points");
-                int level = rs.getInt("level");
-                int pointsForNextLevel = (level * level + 1) * 100;
-                
-                progress.put("points", points);
-                progress.put("level", level);
-                progress.put("nextLevelPoints", pointsForNextLevel);
-            }
-            
-            rs.close();
-            stmt.close();
+            progress.put("points", points);
+            progress.put("level", level);
+            progress.put("nextLevelPoints", pointsForNextLevel);
             
         } catch (SQLException e) {
             System.err.println("Error getting student progress: " + e.getMessage());
@@ -405,7 +539,7 @@ public class GamificationSystem {
     public List<Achievement> getStudentAchievements(int studentId) {
         List<Achievement> achievements = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT a.*, sa.date_earned FROM achievements a " +
                 "JOIN student_achievements sa ON a.id = sa.achievement_id " +
@@ -443,44 +577,168 @@ public class GamificationSystem {
     }
     
     /**
-     * Gets leaderboard of top students by points
-     * @param limit Maximum number of students to return
-     * @return List of students with their points and level
+     * Compacts up to maxRows point transactions older than the retention period into snapshots
+     * (used by the maintenance scheduler, one call per chunk)
+     * @param maxRows Maximum number of rows to compact or fold in this call
+     * @return The number of rows compacted or folded; fewer than maxRows means nothing is left
+     * @throws SQLException if the chunk could not be compacted (nothing was written)
      */
-    public List<Map<String, Object>> getLeaderboard(int limit) {
-        List<Map<String, Object>> leaderboard = new ArrayList<>();
+    public int compactPointLedger(int maxRows) throws SQLException {
+        return compactPointLedger(LocalDate.now().minusMonths(POINT_LEDGER_RETENTION_MONTHS), maxRows);
+    }
+    
+    /**
+     * Rolls the oldest point transactions into per-student monthly snapshots and deletes them, up
+     * to maxRows rows in one transaction. Once no transaction is left to compact, the rest of the
+     * call folds monthly snapshots more than {@value #MONTHLY_SNAPSHOT_YEARS} years before the
+     * cutoff into yearly ones, so both tables stay bounded. Totals do not change.
+     * @param before Transactions of months that ended before this date are compacted
+     * @param maxRows Maximum number of rows to compact or fold in this call
+     * @return The number of rows compacted or folded; fewer than maxRows means nothing is left
+     * @throws SQLException if the chunk could not be compacted (nothing was written)
+     */
+    public int compactPointLedger(LocalDate before, int maxRows) throws SQLException {
+        String cutoff = before.withDayOfMonth(1).toString();
+        int processed = 0;
         
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                processed = compactPointTransactions(connection, cutoff, maxRows);
+                if (processed < maxRows) {
+                    processed += foldPointSnapshots(connection, (before.getYear() - MONTHLY_SNAPSHOT_YEARS) + "-01",
+                                                    maxRows - processed);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        
+        return processed;
+    }
+    
+    /**
+     * Adds the oldest point transactions before a date to the students' snapshots of their month
+     * and deletes them
+     */
+    private int compactPointTransactions(Connection connection, String cutoff, int maxRows) throws SQLException {
+        // The same rows are picked by both statements: nothing else writes while the writer is held
+        String oldest = "SELECT id FROM point_transactions WHERE transaction_date < ? " +
+                        "ORDER BY transaction_date, id LIMIT ?";
+        
+        PreparedStatement snapshotStmt = connection.prepareStatement(
+            "INSERT INTO point_snapshots (student_id, period, points, transactions) " +
+            "SELECT student_id, substr(transaction_date, 1, 7), SUM(points), COUNT(*) FROM point_transactions " +
+            "WHERE id IN (" + oldest + ") GROUP BY student_id, substr(transaction_date, 1, 7) " +
+            "ON CONFLICT (student_id, period) DO UPDATE SET " +
+            "points = points + excluded.points, transactions = transactions + excluded.transactions"
+        );
+        
+        snapshotStmt.setString(1, cutoff);
+        snapshotStmt.setInt(2, maxRows);
+        snapshotStmt.executeUpdate();
+        snapshotStmt.close();
+        
+        PreparedStatement deleteStmt = connection.prepareStatement(
+            "DELETE FROM point_transactions WHERE id IN (" + oldest + ")"
+        );
+        
+        deleteStmt.setString(1, cutoff);
+        deleteStmt.setInt(2, maxRows);
+        int deleted = deleteStmt.executeUpdate();
+        deleteStmt.close();
+        
+        return deleted;
+    }
+    
+    /**
+     * Folds the oldest monthly snapshots of periods before a month into one snapshot per student
+     * and year, up to maxRows monthly snapshots
+     */
+    private int foldPointSnapshots(Connection connection, String beforePeriod, int maxRows) throws SQLException {
+        String oldest = "SELECT student_id, period FROM point_snapshots " +
+                        "WHERE length(period) = 7 AND period < ? ORDER BY period, student_id LIMIT ?";
+        
+        PreparedStatement foldStmt = connection.prepareStatement(
+            "INSERT INTO point_snapshots (student_id, period, points, transactions) " +
+            "SELECT student_id, substr(period, 1, 4), SUM(points), SUM(transactions) FROM point_snapshots " +
+            "WHERE (student_id, period) IN (" + oldest + ") GROUP BY student_id, substr(period, 1, 4) " +
+            "ON CONFLICT (student_id, period) DO UPDATE SET " +
+            "points = points + excluded.points, transactions = transactions + excluded.transactions"
+        );
+        
+        foldStmt.setString(1, beforePeriod);
+        foldStmt.setInt(2, maxRows);
+        foldStmt.executeUpdate();
+        foldStmt.close();
+        
+        PreparedStatement deleteStmt = connection.prepareStatement(
+            "DELETE FROM point_snapshots WHERE (student_id, period) IN (" + oldest + ")"
+        );
+        
+        deleteStmt.setString(1, beforePeriod);
+        deleteStmt.setInt(2, maxRows);
+        int folded = deleteStmt.executeUpdate();
+        deleteStmt.close();
+        
+        return folded;
+    }
+    
+    /**
+     * Loads every registered student's committed points into the leaderboard
+     */
+    public void loadLeaderboard() {
+        try (Connection connection = pool.getConnection()) {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery(
                 "SELECT sp.student_id, sp.total_points, sp.level, " +
                 "s.first_name || ' ' || s.last_name as student_name, s.uid " +
                 "FROM student_points sp " +
-                "JOIN students s ON sp.student_id = s.id " +
-                "ORDER BY sp.total_points DESC LIMIT ?"
+                "JOIN students s ON sp.student_id = s.id"
             );
             
-            stmt.setInt(1, limit);
-            ResultSet rs = stmt.executeQuery();
-            
+            leaderboard.clear();
             while (rs.next()) {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("studentId", rs.getInt("student_id"));
-                entry.put("studentName", rs.getString("student_name"));
-                entry.put("studentUid", rs.getString("uid"));
-                entry.put("points", rs.getInt("total_points"));
-                entry.put("level", rs.getInt("level"));
-                leaderboard.add(entry);
+                leaderboard.update(rs.getInt("student_id"), rs.getString("student_name"), rs.getString("uid"),
+                    rs.getInt("total_points"), rs.getInt("level"));
             }
             
             rs.close();
             stmt.close();
             
         } catch (SQLException e) {
-            System.err.println("Error getting leaderboard: " + e.getMessage());
+            System.err.println("Error loading leaderboard: " + e.getMessage());
             e.printStackTrace();
         }
-        
-        return leaderboard;
+    }
+    
+    /**
+     * Gets leaderboard of top students by points
+     * @param limit Maximum number of students to return
+     * @return Up to limit students, highest points first (ties by student ID)
+     */
+    public List<LeaderboardEntry> getLeaderboard(int limit) {
+        return leaderboard.top(limit);
+    }
+    
+    /**
+     * Gets a student's position on the leaderboard
+     * @param studentId Student ID
+     * @return The rank, starting at 1, or -1 if the student has no points yet
+     */
+    public int getRank(int studentId) {
+        return leaderboard.getRank(studentId);
+    }
+    
+    /**
+     * Gets a student's leaderboard row
+     * @param studentId Student ID
+     * @return The student's entry with their rank, or null if they have no points yet
+     */
+    public LeaderboardEntry getLeaderboardEntry(int studentId) {
+        return leaderboard.getEntry(studentId);
     }
     
     /**
@@ -8,61 +8,14 @@ import java.util.List;
  * Manages inter-library loans with partner libraries
  */
 public class InterLibraryLoanSystem {
-    private Connection connection;
+    private ConnectionPool pool;
     private int defaultLoanPeriodDays = 30; // Longer than regular loans
     
     /**
-     * Creates a new InterLibraryLoanSystem with database connection
+     * Creates a new InterLibraryLoanSystem backed by the database connection pool
      */
-    public InterLibraryLoanSystem(Connection connection) {
-        this.connection = connection;
-        createILLTables();
-    }
-    
-    /**
-     * Creates necessary tables for the ILL system
-     */
-    private void createILLTables() {
-        try {
-            Statement stmt = connection.createStatement();
-            
-            // Create partner libraries table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS partner_libraries (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "name TEXT NOT NULL, " +
-                "address TEXT, " +
-                "contact_email TEXT, " +
-                "contact_phone TEXT, " +
-                "active BOOLEAN DEFAULT 1" +
-                ")"
-            );
-            
-            // Create ILL requests table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS ill_requests (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "student_id INTEGER NOT NULL, " +
-                "title TEXT NOT NULL, " +
-                "author TEXT, " +
-                "isbn TEXT, " +
-                "request_date TEXT NOT NULL, " +
-                "status TEXT NOT NULL, " + // 'PENDING', 'APPROVED', 'DENIED', 'CANCELLED', 'RECEIVED', 'RETURNED'
-                "partner_library_id INTEGER, " +
-                "due_date TEXT, " +
-                "received_date TEXT, " +
-                "returned_date TEXT, " +
-                "notes TEXT, " +
-                "FOREIGN KEY (student_id) REFERENCES students(id), " +
-                "FOREIGN KEY (partner_library_id) REFERENCES partner_libraries(id)" +
-                ")"
-            );
-            
-            stmt.close();
-        } catch (SQLException e) {
-            System.err.println("Error creating ILL tables: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public InterLibraryLoanSystem(ConnectionPool pool) {
+        this.pool = pool;
     }
     
     /**
@@ -70,7 +23,7 @@ public class InterLibraryLoanSystem {
      * @return ID of the new library, or -1 if failed
      */
     public int addPartnerLibrary(String name, String address, String email, String phone) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO partner_libraries (name, address, contact_email, contact_phone) " +
                 "VALUES (?, ?, ?, ?)",
@@ -109,7 +62,7 @@ public class InterLibraryLoanSystem {
      * @return ID of the new request, or -1 if failed
      */
     public int createILLRequest(int studentId, String title, String author, String isbn) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO ill_requests (student_id, title, author, isbn, request_date, status) " +
                 "VALUES (?, ?, ?, ?, ?, 'PENDING')",
@@ -148,7 +101,7 @@ public class InterLibraryLoanSystem {
      * Updates the status of an ILL request
      */
     public boolean updateILLRequestStatus(int requestId, String status, String notes) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE ill_requests SET status = ?, notes = ? WHERE id = ?"
             );
@@ -173,7 +126,7 @@ public class InterLibraryLoanSystem {
      * Approves an ILL request with a partner library
      */
     public boolean approveILLRequest(int requestId, int partnerLibraryId, LocalDate dueDate) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE ill_requests SET status = 'APPROVED', partner_library_id = ?, " +
                 "due_date = ? WHERE id = ?"
@@ -199,7 +152,7 @@ public class InterLibraryLoanSystem {
      * Records that an ILL book has been received
      */
     public boolean receiveILLBook(int requestId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE ill_requests SET status = 'RECEIVED', received_date = ? WHERE id = ?"
             );
@@ -223,7 +176,7 @@ public class InterLibraryLoanSystem {
      * Returns an ILL book to its owner library
      */
     public boolean returnILLBook(int requestId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE ill_requests SET status = 'RETURNED', returned_date = ? WHERE id = ?"
             );
@@ -243,13 +196,71 @@ public class InterLibraryLoanSystem {
         }
     }
     
+    /**
+     * Marks received ILL books that are past their due date as OVERDUE, so overdue loans can be
+     * listed without checking every request (used by the maintenance scheduler)
+     * @param maxRequests Maximum number of requests to mark
+     * @return Number of requests marked; fewer than maxRequests once none are left
+     * @throws SQLException if the requests could not be marked
+     */
+    public int markOverdueILLRequests(int maxRequests) throws SQLException {
+        try (Connection connection = pool.getWriteConnection()) {
+            PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE ill_requests SET status = 'OVERDUE' WHERE id IN (" +
+                "SELECT id FROM ill_requests WHERE status = 'RECEIVED' AND due_date < ? LIMIT ?)"
+            );
+            
+            stmt.setString(1, LocalDate.now().toString());
+            stmt.setInt(2, maxRequests);
+            
+            int rowsAffected = stmt.executeUpdate();
+            stmt.close();
+            
+            return rowsAffected;
+        }
+    }
+    
+    /**
+     * Gets all ILL requests marked overdue
+     */
+    public List<ILLRequest> getOverdueILLRequests() {
+        List<ILLRequest> requests = new ArrayList<>();
+        
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement stmt = connection.prepareStatement(
+                "SELECT r.*, l.name as library_name, " +
+                "s.first_name || ' ' || s.last_name as student_name, s.uid as student_uid " +
+                "FROM ill_requests r " +
+                "LEFT JOIN partner_libraries l ON r.partner_library_id = l.id " +
+                "JOIN students s ON r.student_id = s.id " +
+                "WHERE r.status = 'OVERDUE' " +
+                "ORDER BY r.due_date ASC"
+            );
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                requests.add(createILLRequestFromResultSet(rs));
+            }
+            
+            rs.close();
+            stmt.close();
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting overdue ILL requests: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return requests;
+    }
+    
     /**
      * Gets all ILL requests for a student
      */
     public List<ILLRequest> getStudentILLRequests(int studentId) {
         List<ILLRequest> requests = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT r.*, l.name as library_name " +
                 "FROM ill_requests r " +
@@ -282,7 +293,7 @@ public class InterLibraryLoanSystem {
     public List<ILLRequest> getPendingILLRequests() {
         List<ILLRequest> requests = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT r.*, l.name as library_name, " +
                 "s.first_name || ' ' || s.last_name as student_name, s.uid as student_uid " +
@@ -316,7 +327,7 @@ public class InterLibraryLoanSystem {
     public List<PartnerLibrary> getActivePartnerLibraries() {
         List<PartnerLibrary> libraries = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT * FROM partner_libraries WHERE active = 1 ORDER BY name"
             );
@@ -484,7 +495,7 @@ public class InterLibraryLoanSystem {
         }
         
         public boolean isOverdue() {
-            return status.equals("RECEIVED") && dueDate != null && 
+            return (status.equals("RECEIVED") || status.equals("OVERDUE")) && dueDate != null && 
                    LocalDate.now().isAfter(dueDate);
         }
     }
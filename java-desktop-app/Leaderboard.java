@@ -0,0 +1,283 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Leaderboard keeps every student's points in an order-statistic tree (a treap whose nodes
+ * count their subtree), ordered by points (highest first) and then by student ID. Moving a
+ * student, finding a student's rank and reading the top N are logarithmic in the number of
+ * students, plus N for the rows returned, instead of a sort of student_points on every call.
+ *
+ * The leaderboard only mirrors committed points: GamificationSystem updates it after the
+ * transaction that changed a student's total has committed. All methods are synchronized.
+ */
+public class Leaderboard {
+    private final Map<Integer, Node> nodes;   // Student ID -> the node holding their standing
+    private final Random priorities;          // Heap priorities that keep the tree balanced
+    private Node root;
+
+    /**
+     * Creates an empty leaderboard
+     */
+    public Leaderboard() {
+        this.nodes = new HashMap<>();
+        this.priorities = new Random();
+    }
+
+    /**
+     * Adds a student, or moves them after their points changed
+     * @param studentId Student ID
+     * @param studentName Student's full name
+     * @param studentUid Student's UID
+     * @param points Total points
+     * @param level Level reached with those points
+     */
+    public synchronized void update(int studentId, String studentName, String studentUid, int points, int level) {
+        Node node = nodes.get(studentId);
+        if (node != null) {
+            root = remove(root, node);
+        } else {
+            node = new Node(studentId, priorities.nextInt());
+            nodes.put(studentId, node);
+        }
+        node.studentName = studentName;
+        node.studentUid = studentUid;
+        node.points = points;
+        node.level = level;
+        node.left = null;
+        node.right = null;
+        node.size = 1;
+        root = insert(root, node);
+    }
+
+    /**
+     * Changes the points of a student who is already on the leaderboard
+     * @param studentId Student ID
+     * @param points Total points
+     * @param level Level reached with those points
+     * @return false if the student is not on the leaderboard (nothing was changed)
+     */
+    public synchronized boolean updatePoints(int studentId, int points, int level) {
+        Node node = nodes.get(studentId);
+        if (node == null) {
+            return false;
+        }
+        update(studentId, node.studentName, node.studentUid, points, level);
+        return true;
+    }
+
+    /**
+     * Removes a student from the leaderboard
+     * @param studentId Student ID
+     */
+    public synchronized void remove(int studentId) {
+        Node node = nodes.remove(studentId);
+        if (node != null) {
+            root = remove(root, node);
+        }
+    }
+
+    /**
+     * Removes every student
+     */
+    public synchronized void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Gets the students with the most points
+     * @param limit Maximum number of students to return
+     * @return Up to limit entries, highest points first
+     */
+    public synchronized List<LeaderboardEntry> top(int limit) {
+        List<LeaderboardEntry> results = new ArrayList<>();
+        Deque<Node> path = new ArrayDeque<>();
+        Node current = root;
+        while (results.size() < limit && (current != null || !path.isEmpty())) {
+            while (current != null) {
+                path.push(current);
+                current = current.left;
+            }
+            Node node = path.pop();
+            results.add(node.toEntry(results.size() + 1));
+            current = node.right;
+        }
+        return results;
+    }
+
+    /**
+     * Gets a student's rank
+     * @param studentId Student ID
+     * @return The rank, starting at 1, or -1 if the student is not on the leaderboard
+     */
+    public synchronized int getRank(int studentId) {
+        Node node = nodes.get(studentId);
+        return node == null ? -1 : rankOf(node);
+    }
+
+    /**
+     * Gets a student's standing
+     * @param studentId Student ID
+     * @return The student's entry, or null if they are not on the leaderboard
+     */
+    public synchronized LeaderboardEntry getEntry(int studentId) {
+        Node node = nodes.get(studentId);
+        return node == null ? null : node.toEntry(rankOf(node));
+    }
+
+    /**
+     * Checks whether a student is on the leaderboard
+     * @param studentId Student ID
+     * @return true if the student has an entry
+     */
+    public synchronized boolean contains(int studentId) {
+        return nodes.containsKey(studentId);
+    }
+
+    /**
+     * Gets the number of students on the leaderboard
+     * @return The number of entries
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Counts the nodes ordered before a node, walking down from the root
+     */
+    private int rankOf(Node node) {
+        int before = 0;
+        Node current = root;
+        while (current != null) {
+            int order = compare(node, current);
+            if (order < 0) {
+                current = current.left;
+            } else if (order > 0) {
+                before += size(current.left) + 1;
+                current = current.right;
+            } else {
+                return before + size(current.left) + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static Node insert(Node tree, Node node) {
+        if (tree == null) {
+            return node;
+        }
+        if (node.priority > tree.priority) {
+            // The new node becomes the root of this subtree
+            Node[] parts = split(tree, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            resize(node);
+            return node;
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        resize(tree);
+        return tree;
+    }
+
+    private static Node remove(Node tree, Node node) {
+        if (tree == null) {
+            return null;
+        }
+        int order = compare(node, tree);
+        if (order == 0) {
+            return merge(tree.left, tree.right);
+        }
+        if (order < 0) {
+            tree.left = remove(tree.left, node);
+        } else {
+            tree.right = remove(tree.right, node);
+        }
+        resize(tree);
+        return tree;
+    }
+
+    /**
+     * Splits a tree into the nodes ordered before a key and the nodes ordered after it
+     */
+    private static Node[] split(Node tree, Node key) {
+        if (tree == null) {
+            return new Node[] { null, null };
+        }
+        if (compare(tree, key) < 0) {
+            Node[] parts = split(tree.right, key);
+            tree.right = parts[0];
+            resize(tree);
+            return new Node[] { tree, parts[1] };
+        }
+        Node[] parts = split(tree.left, key);
+        tree.left = parts[1];
+        resize(tree);
+        return new Node[] { parts[0], tree };
+    }
+
+    /**
+     * Joins two trees where every node of the first is ordered before every node of the second
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            resize(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        resize(second);
+        return second;
+    }
+
+    private static int compare(Node a, Node b) {
+        int byPoints = Integer.compare(b.points, a.points);
+        return byPoints != 0 ? byPoints : Integer.compare(a.studentId, b.studentId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void resize(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * A student's standing and their place in the tree
+     */
+    private static class Node {
+        private final int studentId;
+        private final int priority;
+        private String studentName;
+        private String studentUid;
+        private int points;
+        private int level;
+        private int size = 1;     // Nodes in this subtree, including this one
+        private Node left;
+        private Node right;
+
+        Node(int studentId, int priority) {
+            this.studentId = studentId;
+            this.priority = priority;
+        }
+
+        LeaderboardEntry toEntry(int rank) {
+            return new LeaderboardEntry(rank, studentId, studentName, studentUid, points, level);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * LeaderboardEntry is one row of the leaderboard: a student's standing at the time it was read
+ * @param rank Position on the leaderboard, starting at 1
+ * @param studentId Student ID
+ * @param studentName Student's full name
+ * @param studentUid Student's UID
+ * @param points Total points
+ * @param level Level reached with those points
+ */
+public record LeaderboardEntry(int rank, int studentId, String studentName, String studentUid, int points, int level) {
+}
@@ -1,16 +1,42 @@
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * Library class manages the collection of books and provides operations
  * for adding, removing, searching, and managing book borrowing.
+ *
+ * A Library can be shared by many threads (several desk terminals). Changes to a book
+ * (borrowing, returning, rating, adding and removing it) hold a lock striped by ISBN, so they
+ * are atomic per book while different books are changed in parallel. Lookups, listings and
+ * searches do not lock.
  */
 public class Library {
-    // List to store all books in the library
-    private List<Book> books;
-    private int loanPeriodDays = 14; // Default loan period is 14 days
+    private static final int LOCK_STRIPES = 64; // Power of two so the stripe is a mask of the ISBN hash
+    
+    // All books in the library keyed by ISBN
+    private ConcurrentHashMap<String, CatalogEntry> books;
+    // The same books keyed by the order they were added, for listings
+    private ConcurrentSkipListMap<Long, Book> catalog;
+    private AtomicLong nextCatalogPosition;
+    // Locks serializing changes to books whose ISBNs hash to the same stripe
+    private ReentrantLock[] bookLocks;
+    // Inverted indexes used by the title/author/category searches
+    private TrigramIndex titleIndex;
+    private TrigramIndex authorIndex;
+    private TrigramIndex categoryIndex;
+    // Books on loan ordered by due date, used by the overdue and due-soon lists
+    private DueDateIndex dueDateIndex;
+    // Rated books ordered by average rating, used by the top-rated and minimum-rating queries
+    private RatingIndex ratingIndex;
+    private volatile int loanPeriodDays = 14; // Default loan period is 14 days
     private DatabaseManager dbManager;
     private boolean useDatabase = false;
 
@@ -18,17 +44,38 @@ public class Library {
      * Constructor initializes the library and attempts to connect to the database
      */
     public Library() {
-        this.books = new ArrayList<>();
+        this(null);
+    }
+
+    /**
+     * Constructor that opens the library on a specific database file and tuning
+     * @param storageConfig Storage configuration, or null for the default library.db
+     */
+    public Library(StorageConfig storageConfig) {
+        this.books = new ConcurrentHashMap<>();
+        this.catalog = new ConcurrentSkipListMap<>();
+        this.nextCatalogPosition = new AtomicLong();
+        this.bookLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.bookLocks[i] = new ReentrantLock();
+        }
+        this.titleIndex = new TrigramIndex(Book::getTitle);
+        this.authorIndex = new TrigramIndex(Book::getAuthor);
+        this.categoryIndex = new TrigramIndex(Book::getCategory);
+        this.dueDateIndex = new DueDateIndex();
+        this.ratingIndex = new RatingIndex();
         
         // Try to initialize database
         try {
-            this.dbManager = new DatabaseManager();
+            this.dbManager = storageConfig == null ? new DatabaseManager() : new DatabaseManager(storageConfig);
             this.useDatabase = true;
             
             // Check if books table exists and has books
             if (dbManager.getBookCount() > 0) {
                 // Load books from database
-                this.books = dbManager.getAllBooks();
+                for (Book book : dbManager.getAllBooks()) {
+                    indexBook(book);
+                }
                 System.out.println("Loaded " + books.size() + " books from database.");
             } else {
                 System.out.println("Database is empty or books table doesn't exist. Using in-memory storage for now.");
@@ -45,12 +92,127 @@ public class Library {
      * @param book The book to be added
      */
     public void addBook(Book book) {
+        ReentrantLock lock = lockFor(book.getIsbn());
+        lock.lock();
+        try {
+            if (useDatabase) {
+                if (dbManager.addBook(book)) {
+                    indexBook(book);
+                }
+            } else {
+                indexBook(book);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Imports many books at once. Books are written to the database in batched transactions and
+     * the in-memory catalog is updated once at the end with the books that were actually new;
+     * books whose ISBN is already in the library are skipped.
+     * @param source Books to import, read lazily
+     * @return Counts and throughput of the import
+     */
+    public BookImportResult importBooks(Iterator<Book> source) {
+        BookImportResult result;
+        
         if (useDatabase) {
-            if (dbManager.addBook(book)) {
-                books.add(book);
+            result = dbManager.importBooks(source, DatabaseManager.DEFAULT_IMPORT_BATCH_SIZE);
+            for (Book book : result.getInsertedBooks()) {
+                indexBook(book);
             }
         } else {
-            books.add(book);
+            result = new BookImportResult();
+            long start = System.nanoTime();
+            while (source.hasNext()) {
+                Book book = source.next();
+                boolean valid = book != null && book.getIsbn() != null && !book.getIsbn().trim().isEmpty();
+                result.recordRead(valid);
+                if (valid && indexBook(book)) {
+                    result.addInserted(book);
+                }
+            }
+            result.setElapsedNanos(System.nanoTime() - start);
+        }
+        
+        System.out.println(result);
+        return result;
+    }
+    
+    /**
+     * Imports books from a CSV file (isbn, title, author, publication_year, category)
+     * @param csvPath Path of the CSV file
+     * @return Counts and throughput of the import, or null if the file cannot be opened
+     */
+    public BookImportResult importBooksFromCsv(String csvPath) {
+        try (BookCsvReader reader = new BookCsvReader(csvPath)) {
+            return importBooks(reader);
+        } catch (IOException e) {
+            System.err.println("Error opening book import file: " + csvPath);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Gets the lock guarding changes to a book
+     * @param isbn The ISBN of the book
+     * @return The lock of the ISBN's stripe
+     */
+    private ReentrantLock lockFor(String isbn) {
+        int hash = isbn == null ? 0 : isbn.hashCode();
+        return bookLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Adds a book to the ISBN and search indexes, keeping the first copy if the ISBN is already present
+     * @param book The book to index
+     * @return true if the book was added, false if its ISBN was already indexed
+     */
+    private boolean indexBook(Book book) {
+        ReentrantLock lock = lockFor(book.getIsbn());
+        lock.lock();
+        try {
+            long position = nextCatalogPosition.getAndIncrement();
+            if (books.putIfAbsent(book.getIsbn(), new CatalogEntry(book, position)) != null) {
+                return false;
+            }
+            catalog.put(position, book);
+            titleIndex.add(book, position);
+            authorIndex.add(book, position);
+            categoryIndex.add(book, position);
+            dueDateIndex.add(book);
+            ratingIndex.update(book);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the ISBN and search indexes
+     * @param isbn The ISBN of the book to remove
+     * @return true if the book was indexed, false otherwise
+     */
+    private boolean unindexBook(String isbn) {
+        ReentrantLock lock = lockFor(isbn);
+        lock.lock();
+        try {
+            CatalogEntry entry = books.remove(isbn);
+            if (entry == null) {
+                return false;
+            }
+            Book book = entry.book;
+            catalog.remove(entry.position);
+            titleIndex.remove(book);
+            authorIndex.remove(book);
+            categoryIndex.remove(book);
+            dueDateIndex.remove(book);
+            ratingIndex.remove(book);
+            return true;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -60,13 +222,19 @@ public class Library {
      * @return true if book was found and removed, false otherwise
      */
     public boolean removeBook(String isbn) {
-        if (useDatabase) {
-            if (dbManager.removeBook(isbn)) {
-                return books.removeIf(book -> book.getIsbn().equals(isbn));
+        ReentrantLock lock = lockFor(isbn);
+        lock.lock();
+        try {
+            if (useDatabase) {
+                if (dbManager.removeBook(isbn)) {
+                    return unindexBook(isbn);
+                }
+                return false;
+            } else {
+                return unindexBook(isbn);
             }
-            return false;
-        } else {
-            return books.removeIf(book -> book.getIsbn().equals(isbn));
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -76,10 +244,8 @@ public class Library {
      * @return The book if found, null otherwise
      */
     public Book findBook(String isbn) {
-        return books.stream()
-                .filter(book -> book.getIsbn().equals(isbn))
-                .findFirst()
-                .orElse(null);
+        CatalogEntry entry = books.get(isbn);
+        return entry == null ? null : entry.book;
     }
 
     /**
@@ -87,7 +253,7 @@ public class Library {
      * @return List of all books
      */
     public List<Book> getAllBooks() {
-        return new ArrayList<>(books);
+        return new ArrayList<>(catalog.values());
     }
 
     /**
@@ -95,7 +261,7 @@ public class Library {
      * @return List of available books
      */
     public List<Book> getAvailableBooks() {
-        return books.stream()
+        return catalog.values().stream()
                 .filter(Book::isAvailable)
                 .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
@@ -142,23 +308,12 @@ public class Library {
             return false;
         }
         
-        Book book = findBook(isbn);
-        if (book != null && book.isAvailable()) {
-            book.setAvailable(false);
-            book.setBorrowerName(borrowerName);
-            book.setDueDate(dueDate);
-            
-            if (useDatabase) {
-                // Register or update student in database
-                dbManager.registerStudent(borrowerUID, borrowerName);
-                
-                // Update book borrowing status
-                dbManager.updateBookBorrowStatus(isbn, false, borrowerName, borrowerUID, dueDate);
-            }
-            
-            return true;
+        if (useDatabase && findBook(isbn) != null) {
+            // Register or update student in database
+            dbManager.registerStudent(borrowerUID, borrowerName);
         }
-        return false;
+        
+        return checkOut(isbn, borrowerName, borrowerUID, dueDate);
     }
 
     /**
@@ -172,19 +327,48 @@ public class Library {
      * Legacy method for backward compatibility
      */
     public boolean borrowBook(String isbn, String borrowerName, LocalDate dueDate) {
-        Book book = findBook(isbn);
-        if (book != null && book.isAvailable()) {
-            book.setAvailable(false);
-            book.setBorrowerName(borrowerName);
-            book.setDueDate(dueDate);
+        return checkOut(isbn, borrowerName, null, dueDate);
+    }
+
+    /**
+     * Lends a book. With a database, the database decides: the loan is a conditional update
+     * there, so a copy lent by another terminal or process is refused even if this library's
+     * in-memory state has not seen that loan yet.
+     */
+    private boolean checkOut(String isbn, String borrowerName, String borrowerUID, LocalDate dueDate) {
+        ReentrantLock lock = lockFor(isbn);
+        lock.lock();
+        try {
+            // Checked under the lock, so only one of several concurrent borrowers sees the book available
+            Book book = findBook(isbn);
+            if (book == null) {
+                return false;
+            }
             
             if (useDatabase) {
-                dbManager.updateBookBorrowStatus(isbn, false, borrowerName, null, dueDate);
+                CirculationResult result = dbManager.borrowBook(isbn, borrowerName, borrowerUID, dueDate);
+                if (result == CirculationResult.CONFLICT) {
+                    System.out.println("Book " + isbn + " is already on loan in the database; refreshing its status.");
+                    refreshLoan(book);
+                }
+                if (result == CirculationResult.BLOCKED) {
+                    System.out.println("Borrower " + borrowerUID + " has unpaid fines at or above the block balance; loan refused.");
+                }
+                if (!result.isSuccess()) {
+                    return false;
+                }
+            } else if (!book.isAvailable()) {
+                return false;
             }
             
+            book.setAvailable(false);
+            book.setBorrowerName(borrowerName);
+            book.setDueDate(dueDate);
+            dueDateIndex.add(book);
             return true;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     /**
@@ -194,19 +378,53 @@ public class Library {
      * @return true if book was successfully returned, false otherwise
      */
     public boolean returnBook(String isbn, String borrowerUID) {
-        Book book = findBook(isbn);
-        if (book != null && !book.isAvailable()) {
-            book.setAvailable(true);
-            book.setBorrowerName(null);
-            book.setDueDate(null);
+        ReentrantLock lock = lockFor(isbn);
+        lock.lock();
+        try {
+            Book book = findBook(isbn);
+            if (book == null) {
+                return false;
+            }
             
             if (useDatabase) {
-                dbManager.updateBookBorrowStatus(isbn, true, null, borrowerUID, null);
+                CirculationResult result = dbManager.returnBook(isbn, borrowerUID);
+                if (result == CirculationResult.CONFLICT) {
+                    System.out.println("Book " + isbn + " is not on loan in the database; refreshing its status.");
+                    refreshLoan(book);
+                }
+                if (!result.isSuccess()) {
+                    return false;
+                }
+            } else if (book.isAvailable()) {
+                return false;
             }
             
+            dueDateIndex.remove(book);
+            book.setAvailable(true);
+            book.setBorrowerName(null);
+            book.setDueDate(null);
             return true;
+        } finally {
+            lock.unlock();
         }
-        return false;
+    }
+    
+    /**
+     * Copies a book's loan state from the database after another process changed it.
+     * The caller holds the book's lock.
+     * @param book The in-memory book to update
+     */
+    private void refreshLoan(Book book) {
+        Book stored = dbManager.getBook(book.getIsbn());
+        if (stored == null) {
+            return;
+        }
+        
+        dueDateIndex.remove(book);
+        book.setAvailable(stored.isAvailable());
+        book.setBorrowerName(stored.getBorrowerName());
+        book.setDueDate(stored.getDueDate());
+        dueDateIndex.add(book);
     }
     
     /**
@@ -222,10 +440,7 @@ public class Library {
      * @return List of matching books
      */
     public List<Book> searchByTitle(String title) {
-        String searchTerm = title.toLowerCase();
-        return books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        return titleIndex.search(title);
     }
     
     /**
@@ -234,10 +449,7 @@ public class Library {
      * @return List of matching books
      */
     public List<Book> searchByAuthor(String author) {
-        String searchTerm = author.toLowerCase();
-        return books.stream()
-                .filter(book -> book.getAuthor().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        return authorIndex.search(author);
     }
     
     /**
@@ -247,7 +459,7 @@ public class Library {
      */
     public List<Book> searchByIsbn(String isbn) {
         String searchTerm = isbn.toLowerCase();
-        return books.stream()
+        return catalog.values().stream()
                 .filter(book -> book.getIsbn().toLowerCase().contains(searchTerm))
                 .collect(Collectors.toList());
     }
@@ -259,9 +471,12 @@ public class Library {
      */
     public List<Book> searchByBorrower(String borrowerName) {
         String searchTerm = borrowerName.toLowerCase();
-        return books.stream()
-                .filter(book -> !book.isAvailable() && 
-                        book.getBorrowerName().toLowerCase().contains(searchTerm))
+        return catalog.values().stream()
+                .filter(book -> {
+                    // Read once: the book may be returned concurrently
+                    String name = book.getBorrowerName();
+                    return !book.isAvailable() && name != null && name.toLowerCase().contains(searchTerm);
+                })
                 .collect(Collectors.toList());
     }
     
@@ -278,7 +493,7 @@ public class Library {
      * @return Number of available books
      */
     public int getAvailableBooksCount() {
-        return (int) books.stream().filter(Book::isAvailable).count();
+        return (int) catalog.values().stream().filter(Book::isAvailable).count();
     }
 
     /**
@@ -287,7 +502,7 @@ public class Library {
      * @return List of books published in the specified year
      */
     public List<Book> searchByYear(int year) {
-        return books.stream()
+        return catalog.values().stream()
                 .filter(book -> book.getPublicationYear() == year)
                 .collect(Collectors.toList());
     }
@@ -298,7 +513,7 @@ public class Library {
      * @return List of books published after the specified year
      */
     public List<Book> searchByYearAfter(int year) {
-        return books.stream()
+        return catalog.values().stream()
                 .filter(book -> book.getPublicationYear() > year && book.getPublicationYear() > 0)
                 .collect(Collectors.toList());
     }
@@ -310,7 +525,7 @@ public class Library {
      * @return List of books published within the specified range
      */
     public List<Book> searchByYearRange(int startYear, int endYear) {
-        return books.stream()
+        return catalog.values().stream()
                 .filter(book -> {
                     int year = book.getPublicationYear();
                     return year >= startYear && year <= endYear && year > 0;
@@ -324,10 +539,7 @@ public class Library {
      * @return List of books in the specified category
      */
     public List<Book> searchByCategory(String category) {
-        String searchTerm = category.toLowerCase();
-        return books.stream()
-                .filter(book -> book.getCategory().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        return categoryIndex.search(category);
     }
 
     /**
@@ -342,17 +554,24 @@ public class Library {
             return false;
         }
         
-        Book book = findBook(isbn);
-        if (book != null) {
-            book.addRating(rating);
-            
-            if (useDatabase) {
-                return dbManager.updateBookRating(isbn, rating, raterUID);
+        ReentrantLock lock = lockFor(isbn);
+        lock.lock();
+        try {
+            Book book = findBook(isbn);
+            if (book != null) {
+                book.addRating(rating);
+                ratingIndex.update(book);
+                
+                if (useDatabase) {
+                    return dbManager.updateBookRating(isbn, rating, raterUID);
+                }
+                
+                return true;
             }
-            
-            return true;
+            return false;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
     
     /**
@@ -363,14 +582,14 @@ public class Library {
     }
 
     /**
-     * Searches for books with minimum rating
+     * Searches for books with minimum rating. Results come from the rating index, so they are
+     * ordered by rating (highest first) rather than by catalog position; books with the same
+     * rating are listed in the order they were first rated.
      * @param minRating The minimum rating to search for
-     * @return List of books with rating greater than or equal to minRating
+     * @return List of books with rating greater than or equal to minRating, highest rating first
      */
     public List<Book> searchByMinRating(double minRating) {
-        return books.stream()
-                .filter(book -> book.getRating() >= minRating && book.getRatingCount() > 0)
-                .collect(Collectors.toList());
+        return ratingIndex.atLeast(minRating);
     }
 
     /**
@@ -379,36 +598,25 @@ public class Library {
      * @return List of top-rated books, sorted by rating (descending)
      */
     public List<Book> getTopRatedBooks(int limit) {
-        return books.stream()
-                .filter(book -> book.getRatingCount() > 0)
-                .sorted((b1, b2) -> Double.compare(b2.getRating(), b1.getRating()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return ratingIndex.top(limit);
     }
 
     /**
      * Gets a list of overdue books
-     * @return List of books that are currently overdue
+     * @return List of books that are currently overdue, earliest due date first
      */
     public List<Book> getOverdueBooks() {
-        return books.stream()
-                .filter(Book::isOverdue)
-                .collect(Collectors.toList());
+        return dueDateIndex.dueBefore(LocalDate.now());
     }
     
     /**
      * Gets a list of books due within specified days
      * @param days Number of days from today
-     * @return List of books due within the specified number of days
+     * @return List of books due within the specified number of days (not yet overdue), earliest due date first
      */
     public List<Book> getBooksDueSoon(int days) {
-        LocalDate cutoffDate = LocalDate.now().plusDays(days);
-        return books.stream()
-                .filter(book -> !book.isAvailable() && 
-                        book.getDueDate() != null && 
-                        !book.getDueDate().isAfter(cutoffDate) &&
-                        !book.isOverdue())
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        return dueDateIndex.dueBetween(today, today.plusDays(days));
     }
 
     /**
@@ -420,13 +628,22 @@ public class Library {
     public boolean rateBookByTitle(String title, double rating) {
         Book book = findBookByTitle(title);
         if (book != null) {
-            boolean success = book.addRating(rating);
-            
-            if (success && useDatabase) {
-                dbManager.updateBookRating(book.getIsbn(), rating);
+            ReentrantLock lock = lockFor(book.getIsbn());
+            lock.lock();
+            try {
+                boolean success = book.addRating(rating);
+                if (success) {
+                    ratingIndex.update(book);
+                }
+                
+                if (success && useDatabase) {
+                    dbManager.updateBookRating(book.getIsbn(), rating);
+                }
+                
+                return success;
+            } finally {
+                lock.unlock();
             }
-            
-            return success;
         }
         return false;
     }
@@ -437,7 +654,7 @@ public class Library {
      * @return The book if found, null otherwise
      */
     public Book findBookByTitle(String title) {
-        for (Book book : books) {
+        for (Book book : catalog.values()) {
             if (book.getTitle().equalsIgnoreCase(title)) {
                 return book;
             }
@@ -478,7 +695,7 @@ public class Library {
         }
         
         // Use in-memory check if database is not available or query failed
-        return books.stream()
+        return catalog.values().stream()
                 .filter(book -> !book.isAvailable() && book.getBorrowerName() != null)
                 .collect(Collectors.toList());
     }
@@ -493,10 +710,15 @@ public class Library {
     }
 
     /**
-     * Closes the database connection when the library is no longer needed
+     * Closes the database connection when the library is no longer needed.
+     * Gamification activities still queued by circulation are applied first.
      */
     public void close() {
         if (useDatabase && dbManager != null) {
+            ActivityEventQueue activityQueue = dbManager.getActivityQueue();
+            if (activityQueue != null) {
+                activityQueue.close();
+            }
             dbManager.closeConnection();
         }
     }
@@ -518,4 +740,17 @@ public class Library {
         }
         return 0;
     }
-} 
\ No newline at end of file
+
+    /**
+     * A book and the position it was added to the catalog at
+     */
+    private static class CatalogEntry {
+        private final Book book;
+        private final long position;
+
+        CatalogEntry(Book book, long position) {
+            this.book = book;
+            this.position = position;
+        }
+    }
+}
@@ -72,6 +72,9 @@ public class LibraryManagementSystem extends JFrame {
             System.out.println("Database contains " + bookCount + " books.");
         }
         
+        // Accrue fines, expire reservations and flag overdue ILL loans in the background
+        library.getDBManager().startMaintenance();
+        
         setTitle("Library Management System");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
@@ -953,16 +956,14 @@ public class LibraryManagementSystem extends JFrame {
             }
             
             // Get student ID from UID
-            ResultSet studentInfo = dbManager.getStudentInfo(currentStudentUID);
-            if (!studentInfo.next()) {
+            Map<String, Object> studentInfo = dbManager.getStudentInfo(currentStudentUID);
+            if (studentInfo == null) {
                 JOptionPane.showMessageDialog(this, "Student information not found.");
-                studentInfo.close();
                 return;
             }
             
-            int studentRowId = studentInfo.getInt("rowid");
-            String studentName = studentInfo.getString("name");
-            studentInfo.close();
+            int studentRowId = ((Number) studentInfo.get("id")).intValue();
+            String studentName = studentInfo.get("first_name") + " " + studentInfo.get("last_name");
             
             // Get achievements and progress
             List<GamificationSystem.Achievement> achievements = gamificationSystem.getStudentAchievements(studentRowId);
@@ -1037,7 +1038,7 @@ public class LibraryManagementSystem extends JFrame {
             }
             
             // Get leaderboard data (top 10 students)
-            List<Map<String, Object>> leaderboard = gamificationSystem.getLeaderboard(10);
+            List<LeaderboardEntry> leaderboard = gamificationSystem.getLeaderboard(10);
             
             // Create leaderboard dialog
             JDialog leaderboardDialog = new JDialog(this, "Student Leaderboard", true);
@@ -1050,11 +1051,11 @@ public class LibraryManagementSystem extends JFrame {
             Object[][] data = new Object[leaderboard.size()][4];
             
             for (int i = 0; i < leaderboard.size(); i++) {
-                Map<String, Object> entry = leaderboard.get(i);
-                data[i][0] = i + 1;  // Rank
-                data[i][1] = entry.get("studentName");
-                data[i][2] = entry.get("level");
-                data[i][3] = entry.get("points");
+                LeaderboardEntry entry = leaderboard.get(i);
+                data[i][0] = entry.rank();
+                data[i][1] = entry.studentName();
+                data[i][2] = entry.level();
+                data[i][3] = entry.points();
             }
             
             JTable leaderboardTable = new JTable(data, columnNames);
@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogNotificationSink stands in for an email gateway: it writes one line per notification
+ * to a local file (appending) or to standard output.
+ */
+public class LogNotificationSink implements NotificationSink {
+    private final Path file;     // null when writing to the stream
+    private final PrintStream out;
+
+    /**
+     * Creates a sink that prints notifications to standard output
+     */
+    public LogNotificationSink() {
+        this.file = null;
+        this.out = System.out;
+    }
+
+    /**
+     * Creates a sink that appends notifications to a file, creating it if needed
+     * @param file The file to append to
+     */
+    public LogNotificationSink(Path file) {
+        this.file = file;
+        this.out = null;
+    }
+
+    @Override
+    public void deliver(List<ReservationSystem.Notification> notifications) throws IOException {
+        List<String> lines = new ArrayList<>(notifications.size());
+        for (ReservationSystem.Notification notification : notifications) {
+            lines.add(String.format("%s to student %d: [%s] %s", notification.getSentDate(),
+                notification.getStudentId(), notification.getType(), notification.getMessage()));
+        }
+
+        if (file == null) {
+            synchronized (out) {
+                for (String line : lines) {
+                    out.println(line);
+                }
+            }
+        } else {
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MaintenanceScheduler runs the library's periodic jobs (fine accrual, reservation expiry,
+ * overdue inter-library loans...) on one dedicated background thread.
+ *
+ * Each job works in chunks, and every chunk commits its own transaction, so the writer
+ * connection is released between chunks and circulation is never held up for a whole run.
+ * A run stops when the job reports it is done or when its time budget is spent; the next
+ * run picks up where it stopped. Runs are spread out by a random jitter on every delay.
+ */
+public class MaintenanceScheduler {
+    private final ScheduledExecutorService executor;
+    private final Map<String, ScheduledJob> jobs;   // Job name -> job, in registration order
+    private volatile boolean started;
+    private volatile boolean stopped;
+
+    /**
+     * A job that does its work a chunk at a time
+     */
+    public interface ChunkedJob {
+        /**
+         * Processes the next chunk of work in its own transaction
+         * @param chunkSize Maximum number of rows to process
+         * @return Rows processed; fewer than chunkSize means there is nothing left for now
+         * @throws SQLException if the chunk failed (its transaction has been rolled back); the run stops
+         */
+        int runChunk(int chunkSize) throws SQLException;
+    }
+
+    /**
+     * Creates a scheduler; no job runs until {@link #start()} is called
+     */
+    public MaintenanceScheduler() {
+        this.jobs = new LinkedHashMap<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers a job
+     * @param name Unique job name, used for the statistics
+     * @param job The work to run
+     * @param periodMillis Time between the end of one run and the start of the next
+     * @param jitterMillis Up to this much random delay is added to every wait
+     * @param timeBudgetMillis A run starts no new chunk after this much time
+     * @param chunkSize Rows per chunk (per transaction)
+     */
+    public synchronized void schedule(String name, ChunkedJob job, long periodMillis, long jitterMillis,
+                                      long timeBudgetMillis, int chunkSize) {
+        if (jobs.containsKey(name)) {
+            throw new IllegalArgumentException("Maintenance job already scheduled: " + name);
+        }
+        ScheduledJob scheduled = new ScheduledJob(name, job, periodMillis, jitterMillis, timeBudgetMillis, chunkSize);
+        jobs.put(name, scheduled);
+        if (started) {
+            scheduleNext(scheduled, 0);
+        }
+    }
+
+    /**
+     * Changes how often a job runs, from its next scheduled run on
+     * @param name Job name
+     * @param periodMillis Time between the end of one run and the start of the next
+     * @param jitterMillis Up to this much random delay is added to every wait
+     * @return false if there is no such job
+     */
+    public synchronized boolean setCadence(String name, long periodMillis, long jitterMillis) {
+        ScheduledJob job = jobs.get(name);
+        if (job == null) {
+            return false;
+        }
+        job.periodMillis = Math.max(0, periodMillis);
+        job.jitterMillis = Math.max(0, jitterMillis);
+        return true;
+    }
+
+    /**
+     * Starts running the registered jobs; each runs first after a random delay of up to its jitter
+     */
+    public synchronized void start() {
+        if (started || stopped) {
+            return;
+        }
+        started = true;
+        for (ScheduledJob job : jobs.values()) {
+            scheduleNext(job, 0);
+        }
+    }
+
+    /**
+     * Runs a job on the maintenance thread as soon as it is free, outside its schedule
+     * @param name Job name
+     * @return false if there is no such job or the scheduler has been shut down
+     */
+    public synchronized boolean runNow(String name) {
+        ScheduledJob job = jobs.get(name);
+        if (job == null || stopped) {
+            return false;
+        }
+        executor.execute(() -> runJob(job));
+        return true;
+    }
+
+    /**
+     * Stops the scheduler. A chunk in progress is finished (its transaction is committed)
+     * but no further chunk or run is started.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the statistics of one job
+     * @param name Job name
+     * @return The statistics, or null if there is no such job
+     */
+    public synchronized JobStats getStats(String name) {
+        ScheduledJob job = jobs.get(name);
+        return job == null ? null : job.snapshot();
+    }
+
+    /**
+     * Gets the statistics of every job
+     * @return Statistics in registration order
+     */
+    public synchronized List<JobStats> getAllStats() {
+        List<JobStats> stats = new ArrayList<>();
+        for (ScheduledJob job : jobs.values()) {
+            stats.add(job.snapshot());
+        }
+        return stats;
+    }
+
+    /**
+     * Schedules a job's next run after a base delay plus its jitter (the first run only waits the jitter)
+     */
+    private void scheduleNext(ScheduledJob job, long baseDelayMillis) {
+        if (stopped) {
+            return;
+        }
+        long delay = baseDelayMillis + (job.jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(job.jitterMillis + 1) : 0);
+        executor.schedule(() -> {
+            runJob(job);
+            scheduleNext(job, job.periodMillis);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs chunks until the job is done, its time budget is spent or the scheduler stops
+     */
+    private void runJob(ScheduledJob job) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(job.timeBudgetMillis);
+        long startedAt = System.currentTimeMillis();
+        long rows = 0;
+        boolean completed = false;
+        String error = null;
+
+        try {
+            while (!stopped) {
+                int processed = job.job.runChunk(job.chunkSize);
+                rows += processed;
+                if (processed < job.chunkSize) {
+                    completed = true;
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            error = e.toString();
+            System.err.println("Error in maintenance job " + job.name + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        synchronized (this) {
+            job.record(startedAt, durationMillis, rows, completed, error);
+        }
+    }
+
+    /**
+     * A registered job, its settings and its statistics (guarded by the scheduler)
+     */
+    private static class ScheduledJob {
+        private final String name;
+        private final ChunkedJob job;
+        private volatile long periodMillis;
+        private volatile long jitterMillis;
+        private final long timeBudgetMillis;
+        private final int chunkSize;
+        private long runs;
+        private long lastRunStartMillis;
+        private long lastRunDurationMillis;
+        private long lastRowsProcessed;
+        private long totalRowsProcessed;
+        private boolean lastRunCompleted;
+        private String lastError;
+
+        ScheduledJob(String name, ChunkedJob job, long periodMillis, long jitterMillis, long timeBudgetMillis, int chunkSize) {
+            this.name = name;
+            this.job = job;
+            this.periodMillis = Math.max(0, periodMillis);
+            this.jitterMillis = Math.max(0, jitterMillis);
+            this.timeBudgetMillis = Math.max(0, timeBudgetMillis);
+            this.chunkSize = Math.max(1, chunkSize);
+        }
+
+        void record(long startedAt, long durationMillis, long rows, boolean completed, String error) {
+            runs++;
+            lastRunStartMillis = startedAt;
+            lastRunDurationMillis = durationMillis;
+            lastRowsProcessed = rows;
+            totalRowsProcessed += rows;
+            lastRunCompleted = completed;
+            lastError = error;
+        }
+
+        JobStats snapshot() {
+            return new JobStats(name, runs, lastRunStartMillis, lastRunDurationMillis, lastRowsProcessed,
+                totalRowsProcessed, lastRunCompleted, lastError);
+        }
+    }
+
+    /**
+     * What a job did in its last run and overall
+     */
+    public static class JobStats {
+        private final String name;
+        private final long runs;
+        private final long lastRunStartMillis;
+        private final long lastRunDurationMillis;
+        private final long lastRowsProcessed;
+        private final long totalRowsProcessed;
+        private final boolean lastRunCompleted;
+        private final String lastError;
+
+        public JobStats(String name, long runs, long lastRunStartMillis, long lastRunDurationMillis,
+                        long lastRowsProcessed, long totalRowsProcessed, boolean lastRunCompleted, String lastError) {
+            this.name = name;
+            this.runs = runs;
+            this.lastRunStartMillis = lastRunStartMillis;
+            this.lastRunDurationMillis = lastRunDurationMillis;
+            this.lastRowsProcessed = lastRowsProcessed;
+            this.totalRowsProcessed = totalRowsProcessed;
+            this.lastRunCompleted = lastRunCompleted;
+            this.lastError = lastError;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public long getRuns() { return runs; }
+        public long getLastRunStartMillis() { return lastRunStartMillis; }
+        public long getLastRunDurationMillis() { return lastRunDurationMillis; }
+        public long getLastRowsProcessed() { return lastRowsProcessed; }
+        public long getTotalRowsProcessed() { return totalRowsProcessed; }
+        public boolean isLastRunCompleted() { return lastRunCompleted; }
+        public String getLastError() { return lastError; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d runs, last %d rows in %d ms%s%s", name, runs, lastRowsProcessed,
+                lastRunDurationMillis, lastRunCompleted || lastError != null ? "" : " (time budget reached)",
+                lastError == null ? "" : ", failed: " + lastError);
+        }
+    }
+}
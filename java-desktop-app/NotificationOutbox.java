@@ -0,0 +1,385 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationOutbox takes student notifications off the reservation path. Callers post a
+ * notification and return at once; a background worker writes the pending notifications to
+ * notification_log in batches, one transaction per batch, and then hands them to a
+ * {@link NotificationSink} for delivery.
+ *
+ * Duplicates are coalesced: a notification with the same student and message as one still
+ * pending, or as one the student has not read yet, is dropped. The worker waits a short
+ * interval before writing so bursts (a run of expiries, a busy return desk) share a batch.
+ *
+ * Unread counts are cached per student: a student's count is read from the table the first
+ * time it is asked for and then kept up to date as notifications are written and read.
+ */
+public class NotificationOutbox {
+    private static final int MAX_BATCH_SIZE = 500;          // Notifications written per transaction
+    private static final long FLUSH_INTERVAL_MS = 500;      // Wait for more notifications before writing
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;   // Wait for the worker to drain on close
+
+    private final ConnectionPool pool;
+    private final Map<String, ReservationSystem.Notification> pending;   // Student and message -> notification, in posting order
+    private final Map<Integer, Integer> unreadCounts;                    // Student ID -> unread notifications, guarded by itself
+    private final Thread worker;
+    private volatile NotificationSink sink;
+    private boolean writing;        // A batch taken from pending is being written (guarded by this)
+    private boolean flushRequested; // Skip the flush interval (guarded by this)
+    private boolean closed;         // Guarded by this
+    private long posted;            // Guarded by this
+    private long coalesced;         // Guarded by this
+    private long delivered;         // Guarded by this
+
+    /**
+     * Creates the outbox and starts its worker thread
+     * @param pool Connection pool of the library database
+     * @param sink Where written notifications are delivered
+     */
+    public NotificationOutbox(ConnectionPool pool, NotificationSink sink) {
+        this.pool = pool;
+        this.sink = sink;
+        this.pending = new LinkedHashMap<>();
+        this.unreadCounts = new HashMap<>();
+        this.worker = new Thread(this::flushLoop, "notification-outbox");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Replaces the delivery sink, from the next batch on
+     * @param sink Where written notifications are delivered
+     */
+    public void setSink(NotificationSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Queues a notification for a student. It is dropped if the same message is already
+     * pending or unread for that student.
+     * @param reservationId Reservation the notification is about
+     * @param studentId Student ID
+     * @param message Message text
+     * @param type Notification type ('READY', 'EXPIRY'...)
+     */
+    public void post(int reservationId, int studentId, String message, String type) {
+        ReservationSystem.Notification notification = new ReservationSystem.Notification(
+            0, reservationId, studentId, message, type, LocalDateTime.now().toString());
+
+        synchronized (this) {
+            posted++;
+            if (!closed) {
+                if (pending.putIfAbsent(key(studentId, message), notification) != null) {
+                    coalesced++;
+                } else if (pending.size() >= MAX_BATCH_SIZE) {
+                    notifyAll();
+                }
+                return;
+            }
+        }
+
+        // The worker has stopped; write the notification directly
+        List<ReservationSystem.Notification> inline = new ArrayList<>();
+        inline.add(notification);
+        write(inline);
+    }
+
+    /**
+     * Waits until every notification posted so far has been written and delivered
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the outbox was drained, false if the wait timed out or was interrupted
+     */
+    public synchronized boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        flushRequested = true;
+        notifyAll();
+        while (!pending.isEmpty() || writing) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        flushRequested = false;
+        return true;
+    }
+
+    /**
+     * Writes the pending notifications and stops the worker. Notifications posted afterwards
+     * are written by the caller directly.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Notifications that raced with close() are written here rather than left behind
+        List<ReservationSystem.Notification> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    /**
+     * Gets the number of unread notifications of a student (written ones only)
+     * @param studentId Student ID
+     * @return The unread count, or 0 if it cannot be read
+     */
+    public int getUnreadCount(int studentId) {
+        synchronized (unreadCounts) {
+            Integer cached = unreadCounts.get(studentId);
+            if (cached != null) {
+                return cached;
+            }
+
+            try (Connection connection = pool.getConnection()) {
+                PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM notification_log WHERE student_id = ? AND read_status = 0"
+                );
+
+                stmt.setInt(1, studentId);
+                ResultSet rs = stmt.executeQuery();
+                int count = rs.next() ? rs.getInt(1) : 0;
+                rs.close();
+                stmt.close();
+
+                unreadCounts.put(studentId, count);
+                return count;
+            } catch (SQLException e) {
+                System.err.println("Error counting unread notifications: " + e.getMessage());
+                e.printStackTrace();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Marks a notification as read and updates its student's unread count
+     * @param notificationId The notification ID
+     * @return true if the notification exists
+     */
+    public boolean markAsRead(int notificationId) {
+        try (Connection connection = pool.getWriteConnection()) {
+            // The update and the count change happen under the count lock, so a count being
+            // loaded at the same time sees either both or neither
+            synchronized (unreadCounts) {
+                PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE notification_log SET read_status = 1 " +
+                    "WHERE id = ? AND read_status = 0 RETURNING student_id"
+                );
+
+                stmt.setInt(1, notificationId);
+                ResultSet rs = stmt.executeQuery();
+                boolean marked = rs.next();
+                if (marked) {
+                    unreadCounts.computeIfPresent(rs.getInt("student_id"), (id, count) -> Math.max(0, count - 1));
+                }
+                rs.close();
+                stmt.close();
+
+                if (marked) {
+                    return true;
+                }
+            }
+
+            // Not unread: it may have been read already
+            PreparedStatement existsStmt = connection.prepareStatement(
+                "SELECT 1 FROM notification_log WHERE id = ?"
+            );
+
+            existsStmt.setInt(1, notificationId);
+            ResultSet rs = existsStmt.executeQuery();
+            boolean exists = rs.next();
+            rs.close();
+            existsStmt.close();
+            return exists;
+
+        } catch (SQLException e) {
+            System.err.println("Error marking notification as read: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of notifications waiting to be written
+     * @return The pending count
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of notifications posted since the outbox was created
+     * @return The posted count
+     */
+    public synchronized long getPostedCount() {
+        return posted;
+    }
+
+    /**
+     * Gets the number of posted notifications dropped as duplicates
+     * @return The coalesced count
+     */
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+
+    /**
+     * Gets the number of notifications written and handed to the sink
+     * @return The delivered count
+     */
+    public synchronized long getDeliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * Worker loop: waits for a notification, gives the burst a moment to grow, then writes
+     * up to a batch. Exits once the outbox is closed and empty.
+     */
+    private void flushLoop() {
+        while (true) {
+            List<ReservationSystem.Notification> batch = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+                    long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+                    long remaining;
+                    while (!closed && !flushRequested && pending.size() < MAX_BATCH_SIZE
+                           && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                        wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (pending.isEmpty()) {
+                    // Only reached once closed
+                    return;
+                }
+
+                Iterator<ReservationSystem.Notification> it = pending.values().iterator();
+                while (it.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+                writing = true;
+            }
+
+            write(batch);
+
+            synchronized (this) {
+                writing = false;
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction, skipping messages the student has not read yet,
+     * then delivers what was written. A batch that cannot be written is logged and dropped.
+     */
+    private void write(List<ReservationSystem.Notification> batch) {
+        List<ReservationSystem.Notification> written = new ArrayList<>();
+        Map<Integer, Integer> added = new HashMap<>();
+
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement insertStmt = connection.prepareStatement(
+                    "INSERT INTO notification_log (reservation_id, student_id, message, type, sent_date) " +
+                    "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (" +
+                    "SELECT 1 FROM notification_log WHERE student_id = ? AND read_status = 0 AND message = ?) " +
+                    "RETURNING id"
+                );
+
+                for (ReservationSystem.Notification notification : batch) {
+                    insertStmt.setInt(1, notification.getReservationId());
+                    insertStmt.setInt(2, notification.getStudentId());
+                    insertStmt.setString(3, notification.getMessage());
+                    insertStmt.setString(4, notification.getType());
+                    insertStmt.setString(5, notification.getSentDate());
+                    insertStmt.setInt(6, notification.getStudentId());
+                    insertStmt.setString(7, notification.getMessage());
+
+                    ResultSet rs = insertStmt.executeQuery();
+                    if (rs.next()) {
+                        written.add(new ReservationSystem.Notification(rs.getInt("id"), notification.getReservationId(),
+                            notification.getStudentId(), notification.getMessage(), notification.getType(),
+                            notification.getSentDate()));
+                        added.merge(notification.getStudentId(), 1, Integer::sum);
+                    }
+                    rs.close();
+                }
+                insertStmt.close();
+
+                // Commit and count under the count lock, so a count being loaded sees both or neither
+                synchronized (unreadCounts) {
+                    connection.commit();
+                    for (Map.Entry<Integer, Integer> entry : added.entrySet()) {
+                        unreadCounts.computeIfPresent(entry.getKey(), (id, count) -> count + entry.getValue());
+                    }
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error writing " + batch.size() + " notifications: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        synchronized (this) {
+            coalesced += batch.size() - written.size();
+            delivered += written.size();
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        try {
+            sink.deliver(written);
+        } catch (Exception e) {
+            System.err.println("Error delivering " + written.size() + " notifications: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static String key(int studentId, String message) {
+        return studentId + "\n" + message;
+    }
+}
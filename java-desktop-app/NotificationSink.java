@@ -0,0 +1,16 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * NotificationSink delivers notifications to students (by email, text message...) once they
+ * have been written to the notification log. {@link NotificationOutbox} hands over every flushed
+ * batch; a failed delivery is logged and not retried, the notification log stays the record.
+ */
+public interface NotificationSink {
+    /**
+     * Delivers a batch of notifications
+     * @param notifications Notifications that have just been logged, oldest first
+     * @throws IOException if the batch could not be delivered
+     */
+    void deliver(List<ReservationSystem.Notification> notifications) throws IOException;
+}
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RatingIndex keeps the rated books ordered by average rating (highest first), so top-K and
+ * minimum-rating queries read a prefix of the order instead of sorting the catalog.
+ * Books with the same rating keep the order in which they were added to the index: books rated
+ * when the catalog is loaded come in catalog order, books rated later after them.
+ *
+ * The index is safe for concurrent use: updates of one book are atomic, and queries never
+ * lock (they see a weakly consistent view while other books are being re-rated).
+ */
+public class RatingIndex {
+    private final NavigableSet<Entry> ordered;                // Rated books, best first
+    private final ConcurrentHashMap<Book, Entry> entries;     // Book -> its current position in the order
+    private final AtomicLong nextSequence;                    // Tie-breaker: order in which books were first rated
+
+    /**
+     * Creates an empty index
+     */
+    public RatingIndex() {
+        this.ordered = new ConcurrentSkipListSet<>();
+        this.entries = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+    }
+
+    /**
+     * Adds a book, or moves it after its rating changed. Books without ratings are not kept.
+     * @param book The book to add or update
+     */
+    public void update(Book book) {
+        // compute keeps concurrent updates of the same book from interleaving
+        entries.compute(book, (b, previous) -> {
+            long sequence;
+            if (previous != null) {
+                ordered.remove(previous);
+                sequence = previous.sequence;
+            } else {
+                sequence = nextSequence.getAndIncrement();
+            }
+
+            if (b.getRatingCount() == 0) {
+                return null;
+            }
+            Entry entry = new Entry(b, b.getRating(), sequence);
+            ordered.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Removes a book from the index
+     * @param book The book to remove
+     */
+    public void remove(Book book) {
+        entries.computeIfPresent(book, (b, entry) -> {
+            ordered.remove(entry);
+            return null;
+        });
+    }
+
+    /**
+     * Gets the highest rated books
+     * @param limit The maximum number of books to return
+     * @return Up to limit books, highest rating first
+     */
+    public List<Book> top(int limit) {
+        List<Book> results = new ArrayList<>();
+        for (Entry entry : ordered) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.add(entry.book);
+        }
+        return results;
+    }
+
+    /**
+     * Gets the books rated at least a minimum
+     * @param minRating The minimum average rating
+     * @return Matching books, highest rating first
+     */
+    public List<Book> atLeast(double minRating) {
+        List<Book> results = new ArrayList<>();
+        // Everything up to the lowest possible entry with this rating
+        for (Entry entry : ordered.headSet(new Entry(null, minRating, Long.MAX_VALUE), true)) {
+            results.add(entry.book);
+        }
+        return results;
+    }
+
+    /**
+     * A book's place in the order; the rating is copied so the entry can still be found
+     * after the book's rating has changed
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final Book book;
+        private final double rating;
+        private final long sequence;
+
+        Entry(Book book, double rating, long sequence) {
+            this.book = book;
+            this.rating = rating;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byRating = Double.compare(other.rating, rating);
+            return byRating != 0 ? byRating : Long.compare(sequence, other.sequence);
+        }
+    }
+}
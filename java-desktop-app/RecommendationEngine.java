@@ -131,20 +131,6 @@ public class RecommendationEngine {
      * @return List of top rated books
      */
     private List<Book> getTopRatedBooks(int limit) {
-        List<Book> allBooks = dbManager.getAllBooks();
-        
-        // Filter to only available books
-        List<Book> availableBooks = new ArrayList<>();
-        for (Book book : allBooks) {
-            if (book.getStatus().equals("Available")) {
-                availableBooks.add(book);
-            }
-        }
-        
-        // Sort by rating
-        availableBooks.sort((b1, b2) -> Double.compare(b2.getRating(), b1.getRating()));
-        
-        // Return top N books
-        return availableBooks.subList(0, Math.min(limit, availableBooks.size()));
+        return dbManager.getTopRatedBooks(limit);
     }
 } 
\ No newline at end of file
@@ -3,7 +3,6 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
 
@@ -16,8 +15,8 @@ public class RecommendationPanel extends JPanel {
     private final String studentId;
     private BookTableView bookTableView;
 
-    public RecommendationPanel(Connection connection, String studentId) {
-        this.recommendationSystem = new RecommendationSystem(connection);
+    public RecommendationPanel(ConnectionPool pool, String studentId) {
+        this.recommendationSystem = new RecommendationSystem(pool);
         this.studentId = studentId;
         this.bookTableView = new BookTableView();
         
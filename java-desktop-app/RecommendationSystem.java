@@ -5,39 +5,21 @@ import java.sql.SQLException;
 import java.util.*;
 
 public class RecommendationSystem {
-    private Connection connection;
+    private ConnectionPool pool;
     private static final int MAX_RECOMMENDATIONS = 5;
 
-    public RecommendationSystem(Connection connection) {
-        this.connection = connection;
-        setupRecommendationSystem();
-    }
-
-    private void setupRecommendationSystem() {
-        try {
-            // Create interest categories table if not exists
-            String createInterestTable = "CREATE TABLE IF NOT EXISTS student_interests (" +
-                    "uid VARCHAR(10) NOT NULL, " +
-                    "category VARCHAR(50) NOT NULL, " +
-                    "interest_level INT NOT NULL, " +
-                    "PRIMARY KEY (uid, category))";
-            
-            try (PreparedStatement stmt = connection.prepareStatement(createInterestTable)) {
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            System.err.println("Error setting up recommendation system: " + e.getMessage());
-        }
+    public RecommendationSystem(ConnectionPool pool) {
+        this.pool = pool;
     }
 
     public List<Book> getRecommendedBooks(String studentId) {
         List<Book> recommendations = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             // Collect recommendations from different strategies
-            recommendations.addAll(getRecommendationsByInterest(studentId));
-            recommendations.addAll(getRecommendationsByHistory(studentId));
-            recommendations.addAll(getPopularBooks());
+            recommendations.addAll(getRecommendationsByInterest(connection, studentId));
+            recommendations.addAll(getRecommendationsByHistory(connection, studentId));
+            recommendations.addAll(getPopularBooks(connection));
             
             // Remove duplicates and limit to MAX_RECOMMENDATIONS
             List<Book> uniqueRecommendations = removeDuplicates(recommendations);
@@ -50,7 +32,7 @@ public class RecommendationSystem {
         return recommendations;
     }
     
-    private List<Book> getRecommendationsByInterest(String studentId) throws SQLException {
+    private List<Book> getRecommendationsByInterest(Connection connection, String studentId) throws SQLException {
         List<Book> recommendations = new ArrayList<>();
         
         String query = "SELECT b.* FROM books b " +
@@ -75,7 +57,7 @@ public class RecommendationSystem {
         return recommendations;
     }
     
-    private List<Book> getRecommendationsByHistory(String studentId) throws SQLException {
+    private List<Book> getRecommendationsByHistory(Connection connection, String studentId) throws SQLException {
         List<Book> recommendations = new ArrayList<>();
         
         // Find books similar to what the student has borrowed before
@@ -103,7 +85,7 @@ public class RecommendationSystem {
         return recommendations;
     }
     
-    private List<Book> getPopularBooks() throws SQLException {
+    private List<Book> getPopularBooks(Connection connection) throws SQLException {
         List<Book> recommendations = new ArrayList<>();
         
         // Get most borrowed books that are currently available
@@ -159,7 +141,7 @@ public class RecommendationSystem {
             throw new IllegalArgumentException("Interest level must be between 1 and 5");
         }
         
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             String upsert = "INSERT INTO student_interests (uid, category, interest_level) " +
                     "VALUES (?, ?, ?) " +
                     "ON DUPLICATE KEY UPDATE interest_level = ?";
@@ -180,7 +162,7 @@ public class RecommendationSystem {
     public Map<String, Integer> getStudentInterests(String studentId) {
         Map<String, Integer> interests = new HashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             String query = "SELECT category, interest_level FROM student_interests WHERE uid = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(query)) {
@@ -200,7 +182,7 @@ public class RecommendationSystem {
     }
     
     public void analyzeStudentBorrowingHistory(String studentId) {
-        try {
+        try (Connection connection = pool.getConnection()) {
             // Find most borrowed categories by the student
             String query = "SELECT b.category, COUNT(*) as borrow_count " +
                     "FROM borrowing_records br " +
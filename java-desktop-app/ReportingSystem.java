@@ -7,13 +7,13 @@ import java.util.*;
  * Generates analytics and reports for library usage
  */
 public class ReportingSystem {
-    private Connection connection;
+    private ConnectionPool pool;
     
     /**
-     * Creates a new ReportingSystem with database connection
+     * Creates a new ReportingSystem backed by the database connection pool
      */
-    public ReportingSystem(Connection connection) {
-        this.connection = connection;
+    public ReportingSystem(ConnectionPool pool) {
+        this.pool = pool;
     }
     
     /**
@@ -23,7 +23,7 @@ public class ReportingSystem {
     public Map<String, Integer> getBookCountByCategory() {
         Map<String, Integer> categoryMap = new TreeMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
             ResultSet rs = stmt.executeQuery(
                 "SELECT category, COUNT(*) as count " +
@@ -58,7 +58,7 @@ public class ReportingSystem {
     public Map<String, Integer> getMonthlyBorrowingActivity(LocalDate startDate, LocalDate endDate) {
         Map<String, Integer> monthlyActivity = new LinkedHashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT strftime('%Y-%m', borrow_date) as month, COUNT(*) as count " +
                 "FROM borrowing_history " +
@@ -99,7 +99,7 @@ public class ReportingSystem {
     public List<BookBorrowStat> getTopBorrowedBooks(LocalDate startDate, LocalDate endDate, int limit) {
         List<BookBorrowStat> topBooks = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT b.isbn, b.title, b.author, COUNT(*) as borrow_count " +
                 "FROM borrowing_history h " +
@@ -146,7 +146,7 @@ public class ReportingSystem {
     public Map<String, Integer> getBorrowingByDepartment(LocalDate startDate, LocalDate endDate) {
         Map<String, Integer> departmentStats = new LinkedHashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT SUBSTR(s.uid, 3, 3) as dept_code, COUNT(*) as count " +
                 "FROM borrowing_history h " +
@@ -187,7 +187,7 @@ public class ReportingSystem {
     public Map<String, Object> getOverdueStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
             
             // Count currently overdue books
@@ -249,7 +249,7 @@ public class ReportingSystem {
     public Map<String, Object> getStudentActivityStatistics(int limit) {
         Map<String, Object> stats = new HashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             // Get most active students
             PreparedStatement stmt1 = connection.prepareStatement(
                 "SELECT s.id, s.uid, s.first_name || ' ' || s.last_name as name, " +
@@ -307,7 +307,7 @@ public class ReportingSystem {
     public Map<String, Integer> getPopularCategoriesByYear(int year) {
         Map<String, Integer> categoryStats = new LinkedHashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT b.category, COUNT(*) as count " +
                 "FROM borrowing_history h " +
@@ -345,7 +345,7 @@ public class ReportingSystem {
     public Map<String, Object> getUsageTrends(int periodMonths) {
         Map<String, Object> trends = new HashMap<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             // Set up date ranges
             LocalDate endDate = LocalDate.now();
             LocalDate startDate = endDate.minusMonths(periodMonths);
@@ -407,7 +407,7 @@ public class ReportingSystem {
             "endDate", endDate.format(DateTimeFormatter.ISO_DATE)
         ));
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
             
             // Total book count
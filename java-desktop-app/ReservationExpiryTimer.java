@@ -0,0 +1,147 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReservationExpiryTimer expires READY reservations when their hold runs out instead of
+ * scanning the reservations table periodically. Every READY reservation is queued with the
+ * moment its expiry date has passed (the start of the following day); a worker thread sleeps
+ * until the earliest one is due and hands the due reservations to the reservation system.
+ *
+ * Reservations fulfilled or cancelled in the meantime are not removed from the timer: when
+ * they fire, the conditional update in {@link ReservationSystem#expireReservations} finds them
+ * no longer READY and skips them.
+ */
+public class ReservationExpiryTimer {
+    private static final long RETRY_DELAY_MS = 60 * 1000L; // Wait before retrying expiries that failed
+
+    private final ReservationSystem reservationSystem;
+    private final DelayQueue<Expiry> queue;
+    private Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Creates a timer; reservations can be scheduled before it is started
+     * @param reservationSystem The system that expires the reservations
+     */
+    public ReservationExpiryTimer(ReservationSystem reservationSystem) {
+        this.reservationSystem = reservationSystem;
+        this.queue = new DelayQueue<>();
+    }
+
+    /**
+     * Schedules a READY reservation to expire once its expiry date has passed
+     * @param reservationId The reservation ID
+     * @param expiryDate Last day the book is held
+     */
+    public void schedule(int reservationId, LocalDate expiryDate) {
+        long dueMillis = expiryDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.add(new Expiry(reservationId, dueMillis));
+    }
+
+    /**
+     * Removes every scheduled reservation (before the timer is rebuilt from the table)
+     */
+    public void clear() {
+        queue.clear();
+    }
+
+    /**
+     * Starts the worker thread; reservations already due expire right away
+     */
+    public synchronized void start() {
+        if (worker != null || closed) {
+            return;
+        }
+        worker = new Thread(this::fireLoop, "reservation-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker thread. Reservations left in the timer are picked up again from the
+     * table the next time it is started.
+     */
+    public void close() {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = worker;
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of reservations waiting in the timer (including stale ones)
+     * @return The number of scheduled expiries
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Worker loop: waits for the earliest expiry, then expires it together with every other
+     * reservation that is due
+     */
+    private void fireLoop() {
+        while (!closed) {
+            List<Expiry> due = new ArrayList<>();
+            try {
+                due.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(due);
+
+            List<Integer> reservationIds = new ArrayList<>();
+            for (Expiry expiry : due) {
+                reservationIds.add(expiry.reservationId);
+            }
+
+            if (reservationSystem.expireReservations(reservationIds) < 0) {
+                // The transaction was rolled back; try the same reservations again shortly
+                long retryMillis = System.currentTimeMillis() + RETRY_DELAY_MS;
+                for (Expiry expiry : due) {
+                    queue.add(new Expiry(expiry.reservationId, retryMillis));
+                }
+            }
+        }
+    }
+
+    /**
+     * A reservation and the wall-clock time at which it expires
+     */
+    private static class Expiry implements Delayed {
+        private final int reservationId;
+        private final long dueMillis;
+
+        Expiry(int reservationId, long dueMillis) {
+            this.reservationId = reservationId;
+            this.dueMillis = dueMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Expiry) {
+                return Long.compare(dueMillis, ((Expiry) other).dueMillis);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
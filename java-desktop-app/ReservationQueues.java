@@ -0,0 +1,158 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * ReservationQueues holds the waiting list of every book in memory. The reservations table
+ * is the persisted log: each WAITING row carries a ticket in its queue_position column, handed
+ * out in increasing order per book and never rewritten. A student's place in the queue is the
+ * rank of their ticket, so serving or cancelling a reservation writes only that reservation's
+ * row instead of renumbering everyone behind it.
+ *
+ * Updates are made while the caller holds the writer connection, right after the matching
+ * database write; all methods are synchronized.
+ */
+public class ReservationQueues {
+    private final Map<Integer, NavigableSet<Entry>> queues;   // Book ID -> waiting reservations by ticket
+    private final Map<Integer, Entry> entries;                // Reservation ID -> its queue entry
+
+    /**
+     * Creates empty queues
+     */
+    public ReservationQueues() {
+        this.queues = new HashMap<>();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Replaces the queues with the WAITING reservations in the database
+     * @param connection Database connection
+     * @throws SQLException if the reservations cannot be read
+     */
+    public synchronized void load(Connection connection) throws SQLException {
+        queues.clear();
+        entries.clear();
+
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery(
+            "SELECT id, book_id, student_id, queue_position FROM reservations WHERE status = 'WAITING'"
+        );
+
+        while (rs.next()) {
+            add(new Entry(rs.getInt("id"), rs.getInt("book_id"), rs.getInt("student_id"), rs.getLong("queue_position")));
+        }
+
+        rs.close();
+        stmt.close();
+    }
+
+    /**
+     * Gets the ticket for the next reservation of a book: after every ticket in its queue
+     * @param bookId The book ID
+     * @return The ticket to store in queue_position
+     */
+    public synchronized long nextTicket(int bookId) {
+        NavigableSet<Entry> queue = queues.get(bookId);
+        return queue == null || queue.isEmpty() ? 1 : queue.last().ticket + 1;
+    }
+
+    /**
+     * Adds a reservation that has been written as WAITING
+     * @param reservationId The reservation ID
+     * @param bookId The book ID
+     * @param studentId The student ID
+     * @param ticket The ticket stored with the reservation
+     */
+    public synchronized void enqueue(int reservationId, int bookId, int studentId, long ticket) {
+        remove(reservationId);
+        add(new Entry(reservationId, bookId, studentId, ticket));
+    }
+
+    /**
+     * Gets the reservation at the head of a book's queue
+     * @param bookId The book ID
+     * @return The reservation ID and student ID, or null if nobody is waiting
+     */
+    public synchronized int[] peek(int bookId) {
+        NavigableSet<Entry> queue = queues.get(bookId);
+        if (queue == null || queue.isEmpty()) {
+            return null;
+        }
+        Entry head = queue.first();
+        return new int[] { head.reservationId, head.studentId };
+    }
+
+    /**
+     * Removes a reservation from its queue (served, cancelled or fulfilled)
+     * @param reservationId The reservation ID
+     * @return true if the reservation was waiting
+     */
+    public synchronized boolean remove(int reservationId) {
+        Entry entry = entries.remove(reservationId);
+        if (entry == null) {
+            return false;
+        }
+        NavigableSet<Entry> queue = queues.get(entry.bookId);
+        queue.remove(entry);
+        if (queue.isEmpty()) {
+            queues.remove(entry.bookId);
+        }
+        return true;
+    }
+
+    /**
+     * Gets a reservation's place in its book's queue
+     * @param reservationId The reservation ID
+     * @return The position, starting at 1, or 0 if the reservation is not waiting
+     */
+    public synchronized int position(int reservationId) {
+        Entry entry = entries.get(reservationId);
+        if (entry == null) {
+            return 0;
+        }
+        return queues.get(entry.bookId).headSet(entry, true).size();
+    }
+
+    /**
+     * Gets the number of students waiting for a book
+     * @param bookId The book ID
+     * @return The queue length
+     */
+    public synchronized int size(int bookId) {
+        NavigableSet<Entry> queue = queues.get(bookId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    private void add(Entry entry) {
+        queues.computeIfAbsent(entry.bookId, id -> new TreeSet<>()).add(entry);
+        entries.put(entry.reservationId, entry);
+    }
+
+    /**
+     * A waiting reservation, ordered by ticket (then by reservation ID for equal tickets in old data)
+     */
+    private static class Entry implements Comparable<Entry> {
+        private final int reservationId;
+        private final int bookId;
+        private final int studentId;
+        private final long ticket;
+
+        Entry(int reservationId, int bookId, int studentId, long ticket) {
+            this.reservationId = reservationId;
+            this.bookId = bookId;
+            this.studentId = studentId;
+            this.ticket = ticket;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTicket = Long.compare(ticket, other.ticket);
+            return byTicket != 0 ? byTicket : Integer.compare(reservationId, other.reservationId);
+        }
+    }
+}
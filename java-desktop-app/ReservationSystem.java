@@ -5,76 +5,86 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Manages book reservations and waiting lists
+ * Manages book reservations and waiting lists. The waiting lists are kept in memory by
+ * {@link ReservationQueues}; queue_position stores each reservation's ticket, not its place.
  */
 public class ReservationSystem {
-    private Connection connection;
+    private ConnectionPool pool;
+    private final ReservationQueues queues = new ReservationQueues();
+    private final ReservationExpiryTimer expiryTimer;   // Expires READY reservations when their hold runs out
+    private final NotificationOutbox outbox;            // Writes and delivers notifications in batches
+    // Notifications raised inside a transaction, posted only once it commits
+    private final ThreadLocal<List<Notification>> deferredNotifications = new ThreadLocal<>();
     private int maxReservationsPerStudent = 5;
     private int reservationExpiryDays = 3; // Days a reservation is held after book becomes available
     
     /**
-     * Creates a new ReservationSystem with database connection
+     * Creates a new ReservationSystem backed by the database connection pool
      */
-    public ReservationSystem(Connection connection) {
-        this.connection = connection;
-        createReservationTables();
+    public ReservationSystem(ConnectionPool pool) {
+        this.pool = pool;
+        this.expiryTimer = new ReservationExpiryTimer(this);
+        this.outbox = new NotificationOutbox(pool, new LogNotificationSink());
+        loadQueues();
     }
     
     /**
-     * Creates the necessary tables for the reservation system
+     * Schedules every READY reservation in the table on the expiry timer and starts it.
+     * Holds that ran out while the timer was stopped expire right away.
      */
-    private void createReservationTables() {
-        try {
+    public void startExpiryTimer() {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
-            
-            // Create reservations table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS reservations (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "book_id INTEGER NOT NULL, " +
-                "student_id INTEGER NOT NULL, " +
-                "reservation_date TEXT NOT NULL, " +
-                "status TEXT NOT NULL, " + // 'WAITING', 'READY', 'EXPIRED', 'FULFILLED', 'CANCELLED'
-                "notification_sent BOOLEAN DEFAULT 0, " +
-                "expiry_date TEXT, " +
-                "fulfillment_date TEXT, " +
-                "queue_position INTEGER, " +
-                "notes TEXT, " +
-                "FOREIGN KEY (book_id) REFERENCES books(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id)" +
-                ")"
-            );
-            
-            // Create notification_log table
-            stmt.execute(
-                "CREATE TABLE IF NOT EXISTS notification_log (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "reservation_id INTEGER, " +
-                "student_id INTEGER NOT NULL, " +
-                "message TEXT NOT NULL, " +
-                "type TEXT NOT NULL, " + // 'READY', 'EXPIRY', 'REMINDER', etc.
-                "sent_date TEXT NOT NULL, " +
-                "read_status BOOLEAN DEFAULT 0, " +
-                "FOREIGN KEY (reservation_id) REFERENCES reservations(id), " +
-                "FOREIGN KEY (student_id) REFERENCES students(id)" +
-                ")"
+            ResultSet rs = stmt.executeQuery(
+                "SELECT id, expiry_date FROM reservations WHERE status = 'READY' AND expiry_date IS NOT NULL"
             );
             
-            // Create active_reservations view
-            stmt.execute(
-                "CREATE VIEW IF NOT EXISTS active_reservations AS " +
-                "SELECT r.id as reservation_id, r.status, r.reservation_date, r.expiry_date, r.queue_position, " +
-                "s.id as student_id, s.uid, s.first_name, s.last_name, " +
-                "b.id as book_id, b.title, b.isbn, b.is_available " +
-                "FROM reservations r " +
-                "JOIN books b ON r.book_id = b.id " +
-                "JOIN students s ON r.student_id = s.id " +
-                "WHERE r.status IN ('WAITING', 'READY')"
-            );
+            expiryTimer.clear();
+            while (rs.next()) {
+                expiryTimer.schedule(rs.getInt("id"), LocalDate.parse(rs.getString("expiry_date")));
+            }
             
+            rs.close();
             stmt.close();
         } catch (SQLException e) {
-            System.err.println("Error creating reservation tables: " + e.getMessage());
+            System.err.println("Error loading reservation expiries: " + e.getMessage());
+            e.printStackTrace();
+        }
+        expiryTimer.start();
+    }
+    
+    /**
+     * Stops the expiry timer, then writes and delivers the pending notifications
+     */
+    public void close() {
+        expiryTimer.close();
+        outbox.close();
+    }
+    
+    /**
+     * Sets where notifications are delivered once written (standard output by default)
+     * @param sink The notification sink
+     */
+    public void setNotificationSink(NotificationSink sink) {
+        outbox.setSink(sink);
+    }
+    
+    /**
+     * Gets the outbox that writes and delivers notifications
+     * @return The notification outbox
+     */
+    public NotificationOutbox getNotificationOutbox() {
+        return outbox;
+    }
+    
+    /**
+     * Rebuilds the in-memory waiting lists from the reservations table
+     */
+    public void loadQueues() {
+        try (Connection connection = pool.getWriteConnection()) {
+            queues.load(connection);
+        } catch (SQLException e) {
+            System.err.println("Error loading reservation queues: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -104,7 +114,7 @@ public class ReservationSystem {
      * @return Reservation ID if successful, -1 if failed, -2 if limit reached
      */
     public int reserveBook(int bookId, int studentId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Check if student already has this book reserved
             PreparedStatement checkStmt = connection.prepareStatement(
                 "SELECT id FROM reservations " +
@@ -160,29 +170,9 @@ public class ReservationSystem {
             rs.close();
             bookStmt.close();
             
-            // Determine status and queue position
+            // Determine status and the ticket that orders the reservation in the book's queue
             String status = isAvailable ? "READY" : "WAITING";
-            int queuePosition = 0;
-            
-            if (!isAvailable) {
-                // Get current max queue position for this book
-                PreparedStatement queueStmt = connection.prepareStatement(
-                    "SELECT MAX(queue_position) as max_pos FROM reservations " +
-                    "WHERE book_id = ? AND status = 'WAITING'"
-                );
-                
-                queueStmt.setInt(1, bookId);
-                rs = queueStmt.executeQuery();
-                
-                if (rs.next()) {
-                    queuePosition = rs.getInt("max_pos") + 1;
-                } else {
-                    queuePosition = 1;
-                }
-                
-                rs.close();
-                queueStmt.close();
-            }
+            long ticket = isAvailable ? 0 : queues.nextTicket(bookId);
             
             // Create reservation
             PreparedStatement insertStmt = connection.prepareStatement(
@@ -196,7 +186,7 @@ public class ReservationSystem {
             insertStmt.setInt(2, studentId);
             insertStmt.setString(3, now.toString());
             insertStmt.setString(4, status);
-            insertStmt.setInt(5, queuePosition);
+            insertStmt.setLong(5, ticket);
             
             // Set expiry date if book is available
             if (isAvailable) {
@@ -225,11 +215,15 @@ public class ReservationSystem {
                         updateBookStmt.executeUpdate();
                         updateBookStmt.close();
                         
+                        expiryTimer.schedule(reservationId, LocalDate.now().plusDays(reservationExpiryDays));
+                        
                         // Create a notification
                         addNotification(reservationId, studentId, 
                                         "The book you reserved '" + getBookTitle(bookId) + "' is available for pickup. " +
                                         "Please collect it within " + reservationExpiryDays + " days.",
                                         "READY");
+                    } else {
+                        queues.enqueue(reservationId, bookId, studentId, ticket);
                     }
                 }
                 
@@ -252,7 +246,7 @@ public class ReservationSystem {
      * Gets the title of a book by ID
      */
     private String getBookTitle(int bookId) {
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT title FROM books WHERE id = ?"
             );
@@ -279,42 +273,31 @@ public class ReservationSystem {
      * @return ID of the reservation that now has the book available, or -1 if none
      */
     public int processReturn(int bookId) {
-        try {
-            // Find the next reservation in the queue
-            PreparedStatement findStmt = connection.prepareStatement(
-                "SELECT id, student_id FROM reservations " +
-                "WHERE book_id = ? AND status = 'WAITING' " +
-                "ORDER BY queue_position ASC LIMIT 1"
-            );
-            
-            findStmt.setInt(1, bookId);
-            ResultSet rs = findStmt.executeQuery();
-            
-            if (rs.next()) {
-                int reservationId = rs.getInt("id");
-                int studentId = rs.getInt("student_id");
+        try (Connection connection = pool.getWriteConnection()) {
+            int[] head;
+            while ((head = queues.peek(bookId)) != null) {
+                int reservationId = head[0];
+                int studentId = head[1];
                 
-                // Update the reservation
+                // Only the head changes; everyone behind it moves up by the ordering alone
                 PreparedStatement updateStmt = connection.prepareStatement(
                     "UPDATE reservations SET status = 'READY', " +
                     "expiry_date = ?, notification_sent = 0 " +
-                    "WHERE id = ?"
+                    "WHERE id = ? AND status = 'WAITING'"
                 );
                 
-                updateStmt.setString(1, LocalDate.now().plusDays(reservationExpiryDays).toString());
+                LocalDate expiryDate = LocalDate.now().plusDays(reservationExpiryDays);
+                updateStmt.setString(1, expiryDate.toString());
                 updateStmt.setInt(2, reservationId);
-                updateStmt.executeUpdate();
+                int updated = updateStmt.executeUpdate();
                 updateStmt.close();
                 
-                // Update queue positions for remaining reservations
-                PreparedStatement queueStmt = connection.prepareStatement(
-                    "UPDATE reservations SET queue_position = queue_position - 1 " +
-                    "WHERE book_id = ? AND status = 'WAITING' AND queue_position > 1"
-                );
-                
-                queueStmt.setInt(1, bookId);
-                queueStmt.executeUpdate();
-                queueStmt.close();
+                queues.remove(reservationId);
+                if (updated == 0) {
+                    // No longer waiting in the database; serve the next student instead
+                    continue;
+                }
+                expiryTimer.schedule(reservationId, expiryDate);
                 
                 // Create a notification
                 addNotification(reservationId, studentId, 
@@ -322,13 +305,9 @@ public class ReservationSystem {
                                "Please collect it within " + reservationExpiryDays + " days.",
                                "READY");
                 
-                rs.close();
-                findStmt.close();
                 return reservationId;
             }
             
-            rs.close();
-            findStmt.close();
             return -1;
             
         } catch (SQLException e) {
@@ -344,10 +323,10 @@ public class ReservationSystem {
      * @return true if successful
      */
     public boolean cancelReservation(int reservationId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             // Get reservation details
             PreparedStatement getStmt = connection.prepareStatement(
-                "SELECT book_id, status, queue_position FROM reservations WHERE id = ?"
+                "SELECT book_id, status FROM reservations WHERE id = ?"
             );
             
             getStmt.setInt(1, reservationId);
@@ -361,7 +340,6 @@ public class ReservationSystem {
             
             int bookId = rs.getInt("book_id");
             String status = rs.getString("status");
-            int queuePosition = rs.getInt("queue_position");
             
             rs.close();
             getStmt.close();
@@ -375,17 +353,9 @@ public class ReservationSystem {
             updateStmt.executeUpdate();
             updateStmt.close();
             
-            // If the reservation was for a waiting book, update queue positions
+            // A waiting reservation leaves its queue; the students behind it move up by the ordering
             if ("WAITING".equals(status)) {
-                PreparedStatement queueStmt = connection.prepareStatement(
-                    "UPDATE reservations SET queue_position = queue_position - 1 " +
-                    "WHERE book_id = ? AND status = 'WAITING' AND queue_position > ?"
-                );
-                
-                queueStmt.setInt(1, bookId);
-                queueStmt.setInt(2, queuePosition);
-                queueStmt.executeUpdate();
-                queueStmt.close();
+                queues.remove(reservationId);
             } else if ("READY".equals(status)) {
                 // If the book was reserved and ready, process the next reservation
                 processReturn(bookId);
@@ -406,7 +376,7 @@ public class ReservationSystem {
      * @return true if successful
      */
     public boolean fulfillReservation(int reservationId) {
-        try {
+        try (Connection connection = pool.getWriteConnection()) {
             PreparedStatement updateStmt = connection.prepareStatement(
                 "UPDATE reservations SET status = 'FULFILLED', fulfillment_date = ? WHERE id = ?"
             );
@@ -416,6 +386,7 @@ public class ReservationSystem {
             int result = updateStmt.executeUpdate();
             updateStmt.close();
             
+            queues.remove(reservationId);
             return result > 0;
             
         } catch (SQLException e) {
@@ -426,63 +397,166 @@ public class ReservationSystem {
     }
     
     /**
-     * Processes expired reservations
+     * Processes expired reservations by scanning the table. The expiry timer normally expires
+     * reservations as they become due; this pass is a manual catch-up.
      * @return Number of reservations expired
      */
     public int processExpiredReservations() {
+        return processExpiredReservations(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Expires READY reservations past their expiry date, notifies their students and offers
+     * each book to the next student in its queue, all in one transaction
+     * @param maxReservations Maximum number of reservations to expire
+     * @return Number of reservations expired; fewer than maxReservations once none are left
+     */
+    public int processExpiredReservations(int maxReservations) {
         int count = 0;
         
-        try {
-            // Find expired READY reservations
-            PreparedStatement findStmt = connection.prepareStatement(
-                "SELECT id, book_id, student_id FROM reservations " +
-                "WHERE status = 'READY' AND expiry_date < ?"
-            );
-            
-            findStmt.setString(1, LocalDate.now().toString());
-            ResultSet rs = findStmt.executeQuery();
-            
-            List<Integer> bookIds = new ArrayList<>();
-            
-            while (rs.next()) {
-                int reservationId = rs.getInt("id");
-                int bookId = rs.getInt("book_id");
-                int studentId = rs.getInt("student_id");
-                
-                // Update reservation status
-                PreparedStatement updateStmt = connection.prepareStatement(
-                    "UPDATE reservations SET status = 'EXPIRED' WHERE id = ?"
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            deferredNotifications.set(new ArrayList<>());
+            try {
+                // Find expired READY reservations
+                PreparedStatement findStmt = connection.prepareStatement(
+                    "SELECT id, book_id, student_id FROM reservations " +
+                    "WHERE status = 'READY' AND expiry_date < ? LIMIT ?"
                 );
                 
-                updateStmt.setInt(1, reservationId);
-                updateStmt.executeUpdate();
-                updateStmt.close();
+                findStmt.setString(1, LocalDate.now().toString());
+                findStmt.setInt(2, maxReservations);
+                ResultSet rs = findStmt.executeQuery();
                 
-                // Create a notification
-                addNotification(reservationId, studentId, 
-                               "Your reservation for '" + getBookTitle(bookId) + "' has expired.",
-                               "EXPIRY");
+                List<int[]> expired = new ArrayList<>();
+                while (rs.next()) {
+                    expired.add(new int[] { rs.getInt("id"), rs.getInt("book_id"), rs.getInt("student_id") });
+                }
                 
-                bookIds.add(bookId);
-                count++;
-            }
-            
-            rs.close();
-            findStmt.close();
-            
-            // Process the next reservation for each book
-            for (int bookId : bookIds) {
-                processReturn(bookId);
+                rs.close();
+                findStmt.close();
+                
+                List<Integer> bookIds = new ArrayList<>();
+                
+                for (int[] reservation : expired) {
+                    expireReservation(reservation[0], reservation[1], reservation[2]);
+                    bookIds.add(reservation[1]);
+                    count++;
+                }
+                
+                // Process the next reservation for each book
+                for (int bookId : bookIds) {
+                    processReturn(bookId);
+                }
+                
+                connection.commit();
+                postDeferredNotifications();
+            } catch (SQLException e) {
+                connection.rollback();
+                // Heads served inside the rolled back transaction are waiting again
+                queues.load(connection);
+                throw e;
+            } finally {
+                deferredNotifications.remove();
             }
-            
         } catch (SQLException e) {
             System.err.println("Error processing expired reservations: " + e.getMessage());
             e.printStackTrace();
+            return 0;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Expires the given reservations if they are still READY and past their expiry date, and
+     * offers each book to the next student in its queue, in one transaction (used by the
+     * expiry timer). Reservations still held are put back on the timer; others are skipped.
+     * @param reservationIds The reservations that are due
+     * @return Number of reservations expired, or -1 if the transaction failed
+     */
+    public int expireReservations(List<Integer> reservationIds) {
+        int count = 0;
+        LocalDate today = LocalDate.now();
+        
+        try (Connection connection = pool.getWriteConnection()) {
+            connection.setAutoCommit(false);
+            deferredNotifications.set(new ArrayList<>());
+            try {
+                List<Integer> bookIds = new ArrayList<>();
+                
+                for (int reservationId : reservationIds) {
+                    PreparedStatement findStmt = connection.prepareStatement(
+                        "SELECT book_id, student_id, expiry_date FROM reservations " +
+                        "WHERE id = ? AND status = 'READY' AND expiry_date IS NOT NULL"
+                    );
+                    
+                    findStmt.setInt(1, reservationId);
+                    ResultSet rs = findStmt.executeQuery();
+                    
+                    if (rs.next()) {
+                        int bookId = rs.getInt("book_id");
+                        int studentId = rs.getInt("student_id");
+                        LocalDate expiryDate = LocalDate.parse(rs.getString("expiry_date"));
+                        
+                        if (expiryDate.isBefore(today)) {
+                            expireReservation(reservationId, bookId, studentId);
+                            bookIds.add(bookId);
+                            count++;
+                        } else {
+                            expiryTimer.schedule(reservationId, expiryDate);
+                        }
+                    }
+                    
+                    rs.close();
+                    findStmt.close();
+                }
+                
+                // Process the next reservation for each book
+                for (int bookId : bookIds) {
+                    processReturn(bookId);
+                }
+                
+                connection.commit();
+                postDeferredNotifications();
+            } catch (SQLException e) {
+                connection.rollback();
+                // Heads served inside the rolled back transaction are waiting again
+                queues.load(connection);
+                throw e;
+            } finally {
+                deferredNotifications.remove();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error expiring reservations: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
         }
         
         return count;
     }
     
+    /**
+     * Marks one READY reservation as expired and notifies its student
+     */
+    private void expireReservation(int reservationId, int bookId, int studentId) throws SQLException {
+        try (Connection connection = pool.getWriteConnection()) {
+            // Update reservation status
+            PreparedStatement updateStmt = connection.prepareStatement(
+                "UPDATE reservations SET status = 'EXPIRED' WHERE id = ?"
+            );
+            
+            updateStmt.setInt(1, reservationId);
+            updateStmt.executeUpdate();
+            updateStmt.close();
+        }
+        
+        // Create a notification
+        addNotification(reservationId, studentId, 
+                       "Your reservation for '" + getBookTitle(bookId) + "' has expired.",
+                       "EXPIRY");
+    }
+    
     /**
      * Gets active reservations for a student
      * @param studentId The student ID
@@ -491,7 +565,7 @@ public class ReservationSystem {
     public List<Reservation> getReservationsForStudent(int studentId) {
         List<Reservation> reservations = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT * FROM active_reservations WHERE student_id = ?"
             );
@@ -522,9 +596,9 @@ public class ReservationSystem {
     public List<Reservation> getReservationsForBook(int bookId) {
         List<Reservation> reservations = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
-                "SELECT * FROM active_reservations WHERE book_id = ? ORDER BY queue_position ASC"
+                "SELECT * FROM active_reservations WHERE book_id = ? ORDER BY queue_position ASC, reservation_id ASC"
             );
             
             stmt.setInt(1, bookId);
@@ -552,7 +626,7 @@ public class ReservationSystem {
     public List<WaitingListBook> getBooksWithWaitingLists() {
         List<WaitingListBook> books = new ArrayList<>();
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             Statement stmt = connection.createStatement();
             ResultSet rs = stmt.executeQuery(
                 "SELECT b.id, b.title, b.isbn, b.author, COUNT(r.id) as waiting_count " +
@@ -586,39 +660,41 @@ public class ReservationSystem {
     }
     
     /**
-     * Creates a notification for a student
+     * Creates a notification for a student. It goes through the outbox, or waits for the
+     * transaction running on this thread to commit.
      */
     private void addNotification(int reservationId, int studentId, String message, String type) {
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "INSERT INTO notification_log (reservation_id, student_id, message, type, sent_date) " +
-                "VALUES (?, ?, ?, ?, ?)"
-            );
-            
-            stmt.setInt(1, reservationId);
-            stmt.setInt(2, studentId);
-            stmt.setString(3, message);
-            stmt.setString(4, type);
-            stmt.setString(5, LocalDateTime.now().toString());
-            
-            stmt.executeUpdate();
-            stmt.close();
-            
-        } catch (SQLException e) {
-            System.err.println("Error adding notification: " + e.getMessage());
-            e.printStackTrace();
+        List<Notification> deferred = deferredNotifications.get();
+        if (deferred != null) {
+            deferred.add(new Notification(0, reservationId, studentId, message, type, null));
+        } else {
+            outbox.post(reservationId, studentId, message, type);
+        }
+    }
+    
+    /**
+     * Posts the notifications held back by the transaction that just committed
+     */
+    private void postDeferredNotifications() {
+        for (Notification notification : deferredNotifications.get()) {
+            outbox.post(notification.getReservationId(), notification.getStudentId(),
+                        notification.getMessage(), notification.getType());
         }
     }
     
     /**
-     * Gets all unread notifications for a student
+     * Gets all unread notifications for a student. Notifications still in the outbox are not
+     * included until they have been written.
      * @param studentId The student ID
      * @return List of notifications
      */
     public List<Notification> getUnreadNotifications(int studentId) {
         List<Notification> notifications = new ArrayList<>();
+        if (outbox.getUnreadCount(studentId) == 0) {
+            return notifications;
+        }
         
-        try {
+        try (Connection connection = pool.getConnection()) {
             PreparedStatement stmt = connection.prepareStatement(
                 "SELECT * FROM notification_log " +
                 "WHERE student_id = ? AND read_status = 0 " +
@@ -650,36 +726,31 @@ public class ReservationSystem {
         return notifications;
     }
     
+    /**
+     * Gets the number of unread notifications of a student, kept up to date by the outbox
+     * @param studentId The student ID
+     * @return The unread count
+     */
+    public int getUnreadNotificationCount(int studentId) {
+        return outbox.getUnreadCount(studentId);
+    }
+    
     /**
      * Marks a notification as read
      * @param notificationId The notification ID
      * @return true if successful
      */
     public boolean markNotificationAsRead(int notificationId) {
-        try {
-            PreparedStatement stmt = connection.prepareStatement(
-                "UPDATE notification_log SET read_status = 1 WHERE id = ?"
-            );
-            
-            stmt.setInt(1, notificationId);
-            int result = stmt.executeUpdate();
-            stmt.close();
-            
-            return result > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error marking notification as read: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return outbox.markAsRead(notificationId);
     }
     
     /**
      * Creates a Reservation object from a ResultSet
      */
     private Reservation createReservationFromResultSet(ResultSet rs) throws SQLException {
+        int reservationId = rs.getInt("reservation_id");
         return new Reservation(
-            rs.getInt("reservation_id"),
+            reservationId,
             rs.getInt("book_id"),
             rs.getString("title"),
             rs.getString("isbn"),
@@ -689,7 +760,7 @@ public class ReservationSystem {
             rs.getString("status"),
             rs.getString("reservation_date"),
             rs.getString("expiry_date"),
-            rs.getInt("queue_position"),
+            queues.position(reservationId), // The stored queue_position is a ticket, not the place
             rs.getBoolean("is_available")
         );
     }
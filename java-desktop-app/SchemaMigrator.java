@@ -0,0 +1,682 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SchemaMigrator owns the library database schema. Every table, view and index is created
+ * by a numbered migration, and the applied versions are recorded in the schema_migrations table.
+ *
+ * Migrations are written to be safe on databases created before versioning existed
+ * (CREATE ... IF NOT EXISTS, columns added only when missing), so an existing library.db
+ * is upgraded in place the first time it is opened.
+ */
+public class SchemaMigrator {
+    
+    // Average rating of a book as stored in the books table; queries must use this exact
+    // expression for SQLite to match it against idx_books_available_rating
+    static final String AVERAGE_RATING =
+        "(CASE WHEN rating_count > 0 THEN total_rating / rating_count ELSE 0 END)";
+    
+    // point_snapshots period holding points that predate the transaction history
+    static final String OPENING_BALANCE_PERIOD = "0000";
+    
+    /**
+     * One step of a migration, executed inside the migration's transaction
+     */
+    private interface MigrationStep {
+        void apply(Statement stmt) throws SQLException;
+    }
+    
+    /**
+     * A numbered schema change
+     */
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+        
+        Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+    
+    // All migrations in the order they must be applied; append new ones at the end
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+        new Migration(1, "Core books, students and borrowing history tables", SchemaMigrator::createCoreTables),
+        new Migration(2, "Gamification, fines, reservations, events, community and ILL tables", SchemaMigrator::createSubsystemTables),
+        new Migration(3, "Circulation and rating columns on books", SchemaMigrator::addCirculationColumns),
+        new Migration(4, "Secondary indexes on hot filter columns", SchemaMigrator::createSecondaryIndexes),
+        new Migration(5, "Average rating index on available books", SchemaMigrator::createRatingIndex),
+        new Migration(6, "Per-student activity counters for achievement thresholds", SchemaMigrator::createActivityCounts),
+        new Migration(7, "Point ledger snapshots for compacted point transactions", SchemaMigrator::createPointSnapshots),
+        new Migration(8, "Due date index on outstanding loans", SchemaMigrator::createOutstandingLoanIndex),
+        new Migration(9, "Per-student unpaid fine balances", SchemaMigrator::createStudentBalances)
+    );
+    
+    /**
+     * Brings the database schema up to the latest version
+     * @param connection A connection allowed to write to the database
+     * @return The schema version after migrating
+     * @throws SQLException if a migration fails (that migration is rolled back)
+     */
+    public static int migrate(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description TEXT NOT NULL, " +
+            "applied_at TEXT NOT NULL" +
+            ")"
+        );
+        stmt.close();
+        
+        int currentVersion = getSchemaVersion(connection);
+        
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= currentVersion) {
+                continue;
+            }
+            
+            applyMigration(connection, migration);
+            currentVersion = migration.version;
+            System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+        }
+        
+        return currentVersion;
+    }
+    
+    /**
+     * Gets the highest migration version recorded in the database
+     * @param connection Database connection
+     * @return The schema version, or 0 if no migration has been applied
+     */
+    public static int getSchemaVersion(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT MAX(version) AS version FROM schema_migrations");
+        
+        int version = 0;
+        if (rs.next()) {
+            version = rs.getInt("version");
+        }
+        
+        rs.close();
+        stmt.close();
+        return version;
+    }
+    
+    /**
+     * Gets the version the schema reaches once every migration is applied
+     * @return The latest schema version
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+    
+    /**
+     * Applies one migration and records it in a single transaction
+     */
+    private static void applyMigration(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        
+        try {
+            Statement stmt = connection.createStatement();
+            migration.step.apply(stmt);
+            stmt.close();
+            
+            PreparedStatement record = connection.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, applied_at) VALUES (?, ?, ?)"
+            );
+            record.setInt(1, migration.version);
+            record.setString(2, migration.description);
+            record.setString(3, LocalDateTime.now().toString());
+            record.executeUpdate();
+            record.close();
+            
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Schema migration " + migration.version + " failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Version 1: books, students, borrowing history and the active loans view
+     */
+    private static void createCoreTables(Statement stmt) throws SQLException {
+        // Create books table with all necessary columns
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS books (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "isbn TEXT UNIQUE NOT NULL, " +
+            "title TEXT NOT NULL, " +
+            "author TEXT NOT NULL, " +
+            "publication_year INTEGER, " +
+            "category TEXT, " +
+            "is_available BOOLEAN NOT NULL DEFAULT 1, " +
+            "total_rating REAL DEFAULT 0, " +
+            "rating_count INTEGER DEFAULT 0, " +
+            "shelf_location TEXT, " +
+            "date_added TEXT DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+        
+        // Create students table with full student information
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS students (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "uid TEXT UNIQUE NOT NULL, " +
+            "first_name TEXT NOT NULL, " +
+            "last_name TEXT NOT NULL, " +
+            "email TEXT, " +
+            "phone TEXT, " +
+            "department_code TEXT, " +
+            "department TEXT, " +
+            "enrollment_year TEXT, " +
+            "semester INTEGER, " +
+            "active BOOLEAN DEFAULT 1, " +
+            "date_registered TEXT DEFAULT CURRENT_TIMESTAMP, " +
+            "last_login TEXT" +
+            ")"
+        );
+        
+        // Create borrowing_history table to track all borrowing transactions
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS borrowing_history (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "book_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "borrow_date TEXT NOT NULL, " +
+            "due_date TEXT NOT NULL, " +
+            "return_date TEXT, " +
+            "is_returned BOOLEAN DEFAULT 0, " +
+            "FOREIGN KEY (book_id) REFERENCES books(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+        
+        // Create active_loans view for easy querying of current loans
+        stmt.execute(
+            "CREATE VIEW IF NOT EXISTS active_loans AS " +
+            "SELECT b.id as book_id, b.title, b.isbn, b.author, " +
+            "s.id as student_id, s.uid, s.first_name, s.last_name, " +
+            "h.borrow_date, h.due_date, h.id as loan_id " +
+            "FROM borrowing_history h " +
+            "JOIN books b ON h.book_id = b.id " +
+            "JOIN students s ON h.student_id = s.id " +
+            "WHERE h.is_returned = 0"
+        );
+    }
+    
+    /**
+     * Version 2: tables used by the library subsystems
+     */
+    private static void createSubsystemTables(Statement stmt) throws SQLException {
+        createGamificationTables(stmt);
+        createFinesTables(stmt);
+        createReservationTables(stmt);
+        createEventTables(stmt);
+        createCommunityTables(stmt);
+        createILLTables(stmt);
+        
+        // Create interest categories table used by the recommendation system
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS student_interests (" +
+            "uid VARCHAR(10) NOT NULL, " +
+            "category VARCHAR(50) NOT NULL, " +
+            "interest_level INT NOT NULL, " +
+            "PRIMARY KEY (uid, category))"
+        );
+    }
+    
+    /**
+     * Version 3: circulation and rating columns on books that older library.db files lack
+     */
+    private static void addCirculationColumns(Statement stmt) throws SQLException {
+        List<String> columns = getColumnNames(stmt, "books");
+        String[][] required = {
+            {"borrower_name", "TEXT"},
+            {"borrower_uid", "TEXT"},
+            {"due_date", "TEXT"},
+            {"total_rating", "REAL DEFAULT 0"},
+            {"rating_count", "INTEGER DEFAULT 0"}
+        };
+        
+        for (String[] column : required) {
+            if (!columns.contains(column[0])) {
+                System.out.println("Adding " + column[0] + " column to books table...");
+                stmt.execute("ALTER TABLE books ADD COLUMN " + column[0] + " " + column[1]);
+            }
+        }
+    }
+    
+    /**
+     * Version 4: indexes on the columns the circulation, fines, reservation,
+     * gamification and notification queries filter on
+     */
+    private static void createSecondaryIndexes(Statement stmt) throws SQLException {
+        // Active loan lookups by book and per-student loan history
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_borrowing_history_book_returned ON borrowing_history(book_id, is_returned)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_borrowing_history_student ON borrowing_history(student_id)");
+        
+        // Unpaid fine totals per student and the fine-per-loan check of the accrual pass
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_fines_student_paid ON fines(student_id, is_paid)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_fines_loan ON fines(loan_id)");
+        
+        // Reservation queue head lookups
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_book_status_queue ON reservations(book_id, status, queue_position)");
+        
+        // Point history per student and activity
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_point_transactions_student_reason ON point_transactions(student_id, reason)");
+        
+        // Unread notifications per student
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_notification_log_student_read ON notification_log(student_id, read_status)");
+    }
+    
+    /**
+     * Version 5: expression index on the average rating of available books, so top-rated
+     * queries read the best books from the index instead of sorting the whole table
+     */
+    private static void createRatingIndex(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_available_rating ON books(is_available, " + AVERAGE_RATING + ")");
+    }
+    
+    /**
+     * Version 6: how many activities of each type every student has done, so achievement
+     * thresholds are checked with a key lookup instead of a LIKE scan over point_transactions
+     */
+    private static void createActivityCounts(Statement stmt) throws SQLException {
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS student_activity_counts (" +
+            "student_id INTEGER NOT NULL, " +
+            "activity_type TEXT NOT NULL, " +
+            "count INTEGER NOT NULL DEFAULT 0, " +
+            "PRIMARY KEY (student_id, activity_type), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ") WITHOUT ROWID"
+        );
+        rebuildActivityCounts(stmt);
+    }
+    
+    /**
+     * Recomputes student_activity_counts from the "Activity: TYPE" rows of point_transactions
+     * (used when the table is created and after point transactions are loaded in bulk).
+     * Only valid before the point ledger has been compacted, since compaction deletes old rows.
+     */
+    static void rebuildActivityCounts(Statement stmt) throws SQLException {
+        stmt.execute("DELETE FROM student_activity_counts");
+        stmt.execute(
+            "INSERT INTO student_activity_counts (student_id, activity_type, count) " +
+            "SELECT student_id, substr(reason, 11), COUNT(*) FROM point_transactions " +
+            "WHERE reason LIKE 'Activity: %' GROUP BY student_id, substr(reason, 11)"
+        );
+    }
+    
+    /**
+     * Version 7: per-student, per-period sums of compacted point transactions. A student's
+     * points are their snapshots plus the point transactions not compacted yet. Existing totals
+     * that the transactions do not add up to are kept as an opening balance snapshot.
+     */
+    private static void createPointSnapshots(Statement stmt) throws SQLException {
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS point_snapshots (" +
+            "student_id INTEGER NOT NULL, " +
+            "period TEXT NOT NULL, " + // YYYY-MM, YYYY once the year is folded, or the opening balance
+            "points INTEGER NOT NULL, " +
+            "transactions INTEGER NOT NULL, " + // Point transactions summed into this row
+            "PRIMARY KEY (student_id, period), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ") WITHOUT ROWID"
+        );
+        
+        // Compaction selects and deletes the transactions older than its cutoff
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_point_transactions_date ON point_transactions(transaction_date)");
+        
+        stmt.execute(
+            "INSERT OR IGNORE INTO point_snapshots (student_id, period, points, transactions) " +
+            "SELECT sp.student_id, '" + OPENING_BALANCE_PERIOD + "', " +
+            "sp.total_points - COALESCE((SELECT SUM(pt.points) FROM point_transactions pt WHERE pt.student_id = sp.student_id), 0), 0 " +
+            "FROM student_points sp " +
+            "WHERE sp.total_points != COALESCE((SELECT SUM(pt.points) FROM point_transactions pt WHERE pt.student_id = sp.student_id), 0)"
+        );
+    }
+    
+    /**
+     * Version 8: partial index over the loans not returned yet, by due date, so the fine
+     * accrual pass reads only the overdue loans instead of the whole borrowing history
+     */
+    private static void createOutstandingLoanIndex(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_borrowing_history_outstanding_due ON borrowing_history(due_date) WHERE is_returned = 0");
+    }
+    
+    /**
+     * Version 9: every student's unpaid fine total, kept by FineManager in the same transaction
+     * as the fines, so balance checks are a key lookup instead of a SUM over fines
+     */
+    private static void createStudentBalances(Statement stmt) throws SQLException {
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS student_balances (" +
+            "student_id INTEGER PRIMARY KEY, " +
+            "unpaid_amount REAL NOT NULL DEFAULT 0, " +
+            "unpaid_count INTEGER NOT NULL DEFAULT 0, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+        rebuildStudentBalances(stmt);
+    }
+    
+    /**
+     * Recomputes student_balances from the unpaid fines
+     * (used when the table is created and after fines are loaded in bulk)
+     */
+    static void rebuildStudentBalances(Statement stmt) throws SQLException {
+        stmt.execute("DELETE FROM student_balances");
+        stmt.execute(
+            "INSERT INTO student_balances (student_id, unpaid_amount, unpaid_count) " +
+            "SELECT student_id, SUM(fine_amount), COUNT(*) FROM fines WHERE is_paid = 0 GROUP BY student_id"
+        );
+    }
+    
+    /**
+     * Gamification: achievements, earned achievements, points and point transactions
+     */
+    private static void createGamificationTables(Statement stmt) throws SQLException {
+        // Create achievements table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS achievements (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "name TEXT NOT NULL, " +
+            "description TEXT NOT NULL, " +
+            "type TEXT NOT NULL, " + // Type of activity: BORROW, RETURN, REVIEW, etc.
+            "threshold INTEGER NOT NULL, " + // How many actions needed to earn
+            "points INTEGER NOT NULL, " + // Points awarded
+            "badge_icon TEXT, " + // Icon filename
+            "badge_color TEXT" + // Badge color
+            ")"
+        );
+        
+        // Create student achievements table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS student_achievements (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "student_id INTEGER NOT NULL, " +
+            "achievement_id INTEGER NOT NULL, " +
+            "date_earned TEXT NOT NULL, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "FOREIGN KEY (achievement_id) REFERENCES achievements(id), " +
+            "UNIQUE(student_id, achievement_id)" +
+            ")"
+        );
+        
+        // Create student points table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS student_points (" +
+            "student_id INTEGER PRIMARY KEY, " +
+            "total_points INTEGER DEFAULT 0, " +
+            "level INTEGER DEFAULT 1, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+        
+        // Create point transactions table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS point_transactions (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "student_id INTEGER NOT NULL, " +
+            "points INTEGER NOT NULL, " + // Can be positive or negative
+            "reason TEXT NOT NULL, " +
+            "transaction_date TEXT NOT NULL, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+    }
+    
+    /**
+     * Fines and the unpaid fines view
+     */
+    private static void createFinesTables(Statement stmt) throws SQLException {
+        // Create fines table to track all fines
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS fines (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "loan_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "book_id INTEGER NOT NULL, " +
+            "fine_amount REAL NOT NULL, " +
+            "days_overdue INTEGER NOT NULL, " +
+            "is_paid BOOLEAN DEFAULT 0, " +
+            "payment_date TEXT, " +
+            "calculated_date TEXT DEFAULT CURRENT_TIMESTAMP, " +
+            "notes TEXT, " +
+            "FOREIGN KEY (loan_id) REFERENCES borrowing_history(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "FOREIGN KEY (book_id) REFERENCES books(id)" +
+            ")"
+        );
+        
+        // Create view for unpaid fines
+        stmt.execute(
+            "CREATE VIEW IF NOT EXISTS unpaid_fines AS " +
+            "SELECT f.id as fine_id, f.fine_amount, f.days_overdue, " +
+            "s.id as student_id, s.uid, s.first_name, s.last_name, " +
+            "b.id as book_id, b.title, b.isbn, " +
+            "h.due_date, h.id as loan_id " +
+            "FROM fines f " +
+            "JOIN borrowing_history h ON f.loan_id = h.id " +
+            "JOIN books b ON f.book_id = b.id " +
+            "JOIN students s ON f.student_id = s.id " +
+            "WHERE f.is_paid = 0"
+        );
+    }
+    
+    /**
+     * Reservations, notification log and the active reservations view
+     */
+    private static void createReservationTables(Statement stmt) throws SQLException {
+        // Create reservations table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS reservations (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "book_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "reservation_date TEXT NOT NULL, " +
+            "status TEXT NOT NULL, " + // 'WAITING', 'READY', 'EXPIRED', 'FULFILLED', 'CANCELLED'
+            "notification_sent BOOLEAN DEFAULT 0, " +
+            "expiry_date TEXT, " +
+            "fulfillment_date TEXT, " +
+            "queue_position INTEGER, " +
+            "notes TEXT, " +
+            "FOREIGN KEY (book_id) REFERENCES books(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+        
+        // Create notification_log table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS notification_log (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "reservation_id INTEGER, " +
+            "student_id INTEGER NOT NULL, " +
+            "message TEXT NOT NULL, " +
+            "type TEXT NOT NULL, " + // 'READY', 'EXPIRY', 'REMINDER', etc.
+            "sent_date TEXT NOT NULL, " +
+            "read_status BOOLEAN DEFAULT 0, " +
+            "FOREIGN KEY (reservation_id) REFERENCES reservations(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id)" +
+            ")"
+        );
+        
+        // Create active_reservations view
+        stmt.execute(
+            "CREATE VIEW IF NOT EXISTS active_reservations AS " +
+            "SELECT r.id as reservation_id, r.status, r.reservation_date, r.expiry_date, r.queue_position, " +
+            "s.id as student_id, s.uid, s.first_name, s.last_name, " +
+            "b.id as book_id, b.title, b.isbn, b.is_available " +
+            "FROM reservations r " +
+            "JOIN books b ON r.book_id = b.id " +
+            "JOIN students s ON r.student_id = s.id " +
+            "WHERE r.status IN ('WAITING', 'READY')"
+        );
+    }
+    
+    /**
+     * Events and event participants
+     */
+    private static void createEventTables(Statement stmt) throws SQLException {
+        // Create events table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS events (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "title TEXT NOT NULL, " +
+            "description TEXT, " +
+            "event_type TEXT NOT NULL, " + // 'BOOK_CLUB', 'AUTHOR_EVENT', 'WORKSHOP', 'STUDY_GROUP'
+            "start_date TEXT NOT NULL, " +
+            "end_date TEXT NOT NULL, " +
+            "location TEXT, " +
+            "max_participants INTEGER, " +
+            "organizer_id INTEGER, " +
+            "created_at TEXT NOT NULL, " +
+            "FOREIGN KEY (organizer_id) REFERENCES students(id)" +
+            ")"
+        );
+        
+        // Create event participants table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS event_participants (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "event_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "registration_date TEXT NOT NULL, " +
+            "attendance_status TEXT DEFAULT 'REGISTERED', " + // 'REGISTERED', 'ATTENDED', 'CANCELLED'
+            "FOREIGN KEY (event_id) REFERENCES events(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "UNIQUE(event_id, student_id)" +
+            ")"
+        );
+    }
+    
+    /**
+     * Reviews, reading lists and discussions
+     */
+    private static void createCommunityTables(Statement stmt) throws SQLException {
+        // Create book reviews table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS book_reviews (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "book_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "review_text TEXT NOT NULL, " +
+            "rating INTEGER NOT NULL, " + // 1-5 stars
+            "submission_date TEXT NOT NULL, " +
+            "likes INTEGER DEFAULT 0, " +
+            "FOREIGN KEY (book_id) REFERENCES books(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "UNIQUE(book_id, student_id)" +
+            ")"
+        );
+        
+        // Create reading lists table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS reading_lists (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "student_id INTEGER NOT NULL, " +
+            "list_name TEXT NOT NULL, " +
+            "description TEXT, " +
+            "is_public BOOLEAN DEFAULT 0, " +
+            "created_date TEXT NOT NULL, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "UNIQUE(student_id, list_name)" +
+            ")"
+        );
+        
+        // Create reading list items table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS reading_list_items (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "list_id INTEGER NOT NULL, " +
+            "book_id INTEGER NOT NULL, " +
+            "date_added TEXT NOT NULL, " +
+            "notes TEXT, " +
+            "FOREIGN KEY (list_id) REFERENCES reading_lists(id), " +
+            "FOREIGN KEY (book_id) REFERENCES books(id), " +
+            "UNIQUE(list_id, book_id)" +
+            ")"
+        );
+        
+        // Create book discussion table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS book_discussions (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "book_id INTEGER NOT NULL, " +
+            "student_id INTEGER NOT NULL, " +
+            "parent_id INTEGER, " + // NULL for top-level comments
+            "comment_text TEXT NOT NULL, " +
+            "submission_date TEXT NOT NULL, " +
+            "likes INTEGER DEFAULT 0, " +
+            "FOREIGN KEY (book_id) REFERENCES books(id), " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "FOREIGN KEY (parent_id) REFERENCES book_discussions(id)" +
+            ")"
+        );
+    }
+    
+    /**
+     * Partner libraries and inter-library loan requests
+     */
+    private static void createILLTables(Statement stmt) throws SQLException {
+        // Create partner libraries table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS partner_libraries (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "name TEXT NOT NULL, " +
+            "address TEXT, " +
+            "contact_email TEXT, " +
+            "contact_phone TEXT, " +
+            "active BOOLEAN DEFAULT 1" +
+            ")"
+        );
+        
+        // Create ILL requests table
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS ill_requests (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "student_id INTEGER NOT NULL, " +
+            "title TEXT NOT NULL, " +
+            "author TEXT, " +
+            "isbn TEXT, " +
+            "request_date TEXT NOT NULL, " +
+            "status TEXT NOT NULL, " + // 'PENDING', 'APPROVED', 'DENIED', 'CANCELLED', 'RECEIVED', 'OVERDUE', 'RETURNED'
+            "partner_library_id INTEGER, " +
+            "due_date TEXT, " +
+            "received_date TEXT, " +
+            "returned_date TEXT, " +
+            "notes TEXT, " +
+            "FOREIGN KEY (student_id) REFERENCES students(id), " +
+            "FOREIGN KEY (partner_library_id) REFERENCES partner_libraries(id)" +
+            ")"
+        );
+    }
+    
+    /**
+     * Gets the column names of a table
+     */
+    private static List<String> getColumnNames(Statement stmt, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")");
+        while (rs.next()) {
+            columns.add(rs.getString("name"));
+        }
+        rs.close();
+        return columns;
+    }
+}
@@ -0,0 +1,201 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * StorageConfig describes how the SQLite database file is opened: journal mode, pragmas
+ * and how many reader connections sit next to the single writer connection.
+ *
+ * The defaults put the database in WAL mode so reports can read a consistent snapshot
+ * while circulation keeps writing through the writer connection.
+ */
+public class StorageConfig {
+    private String databasePath;
+    private String journalMode = "WAL";        // WAL lets readers run alongside the writer
+    private String synchronous = "NORMAL";     // Safe with WAL, avoids an fsync per commit
+    private int cacheSizeKb = 64 * 1024;       // Page cache per connection
+    private long mmapSizeBytes = 256L * 1024 * 1024; // Memory-mapped I/O window
+    private String tempStore = "MEMORY";       // Keep temp tables and sort spills in memory
+    private int busyTimeoutMs = 5000;          // How long to wait on a locked database
+    private int readerCount = 4;               // Reader connections in the pool
+
+    /**
+     * Creates a configuration with the default tuning for the given database file
+     * @param databasePath Path of the SQLite database file
+     */
+    public StorageConfig(String databasePath) {
+        this.databasePath = databasePath;
+    }
+
+    /**
+     * Gets the JDBC URL of the database
+     * @return The JDBC URL
+     */
+    public String getUrl() {
+        return "jdbc:sqlite:" + databasePath;
+    }
+
+    /**
+     * Gets the database file path
+     * @return The database file path
+     */
+    public String getDatabasePath() {
+        return databasePath;
+    }
+
+    /**
+     * Sets the SQLite journal mode (WAL, DELETE, TRUNCATE...)
+     * @param journalMode The journal mode
+     */
+    public void setJournalMode(String journalMode) {
+        if (journalMode != null && !journalMode.trim().isEmpty()) {
+            this.journalMode = journalMode.trim().toUpperCase();
+        }
+    }
+
+    /**
+     * Sets the synchronous level (OFF, NORMAL, FULL, EXTRA)
+     * @param synchronous The synchronous level
+     */
+    public void setSynchronous(String synchronous) {
+        if (synchronous != null && !synchronous.trim().isEmpty()) {
+            this.synchronous = synchronous.trim().toUpperCase();
+        }
+    }
+
+    /**
+     * Sets the page cache size of each connection
+     * @param cacheSizeKb Cache size in kibibytes
+     */
+    public void setCacheSizeKb(int cacheSizeKb) {
+        if (cacheSizeKb > 0) {
+            this.cacheSizeKb = cacheSizeKb;
+        }
+    }
+
+    /**
+     * Sets the memory-mapped I/O size (0 disables memory mapping)
+     * @param mmapSizeBytes Size in bytes
+     */
+    public void setMmapSizeBytes(long mmapSizeBytes) {
+        if (mmapSizeBytes >= 0) {
+            this.mmapSizeBytes = mmapSizeBytes;
+        }
+    }
+
+    /**
+     * Sets where temporary tables and indices are stored (DEFAULT, FILE, MEMORY)
+     * @param tempStore The temp store location
+     */
+    public void setTempStore(String tempStore) {
+        if (tempStore != null && !tempStore.trim().isEmpty()) {
+            this.tempStore = tempStore.trim().toUpperCase();
+        }
+    }
+
+    /**
+     * Sets how long a connection waits for a lock before failing with SQLITE_BUSY
+     * @param busyTimeoutMs Timeout in milliseconds
+     */
+    public void setBusyTimeoutMs(int busyTimeoutMs) {
+        if (busyTimeoutMs >= 0) {
+            this.busyTimeoutMs = busyTimeoutMs;
+        }
+    }
+
+    /**
+     * Sets the number of reader connections
+     * @param readerCount Number of reader connections (at least 1)
+     */
+    public void setReaderCount(int readerCount) {
+        if (readerCount > 0) {
+            this.readerCount = readerCount;
+        }
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public int getCacheSizeKb() {
+        return cacheSizeKb;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public int getBusyTimeoutMs() {
+        return busyTimeoutMs;
+    }
+
+    public int getReaderCount() {
+        return readerCount;
+    }
+
+    /**
+     * Opens the writer connection. The journal mode is stored in the database file,
+     * so setting it here also applies to every reader opened afterwards.
+     * @return A tuned connection allowed to write
+     * @throws SQLException if the connection cannot be opened
+     */
+    public Connection openWriter() throws SQLException {
+        Connection connection = DriverManager.getConnection(getUrl());
+        Statement stmt = connection.createStatement();
+
+        ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + journalMode);
+        if (rs.next() && !journalMode.equalsIgnoreCase(rs.getString(1))) {
+            System.err.println("Database journal mode is " + rs.getString(1) + ", requested " + journalMode);
+        }
+        rs.close();
+
+        stmt.close();
+        applyPragmas(connection);
+        return connection;
+    }
+
+    /**
+     * Opens a reader connection. Readers are query-only so any write routed to them fails
+     * loudly instead of competing with the writer for the database lock.
+     * @return A tuned read-only connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    public Connection openReader() throws SQLException {
+        Connection connection = DriverManager.getConnection(getUrl());
+        applyPragmas(connection);
+
+        Statement stmt = connection.createStatement();
+        stmt.execute("PRAGMA query_only = 1");
+        stmt.close();
+        return connection;
+    }
+
+    /**
+     * Applies the per-connection pragmas
+     */
+    private void applyPragmas(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+        stmt.execute("PRAGMA synchronous = " + synchronous);
+        stmt.execute("PRAGMA cache_size = -" + cacheSizeKb);
+        stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+        stmt.execute("PRAGMA temp_store = " + tempStore);
+        stmt.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (journal_mode=%s, synchronous=%s, cache_size=%dKB, mmap_size=%d, temp_store=%s, readers=%d)",
+            databasePath, journalMode, synchronous, cacheSizeKb, mmapSizeBytes, tempStore, readerCount);
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * TrigramIndex is an inverted index over one text field of a book (title, author, category...).
+ * Every lower-cased field value is split into overlapping three-character grams and each gram
+ * points to the books containing it, so substring searches only look at candidate books.
+ *
+ * The index is safe for concurrent use: adding or removing one book is atomic, and searches
+ * never lock (they see a weakly consistent view while other books are being added or removed).
+ */
+public class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final Function<Book, String> fieldExtractor;      // Reads the indexed field from a book
+    private final ConcurrentHashMap<String, Set<Book>> postings; // Gram -> books containing it
+    private final ConcurrentHashMap<Book, Indexed> indexedText;  // Book -> lower-cased field value and catalog position
+
+    /**
+     * Creates an empty index over the given book field
+     * @param fieldExtractor Function returning the text to index for a book
+     */
+    public TrigramIndex(Function<Book, String> fieldExtractor) {
+        this.fieldExtractor = fieldExtractor;
+        this.postings = new ConcurrentHashMap<>();
+        this.indexedText = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a book to the index
+     * @param book The book to add
+     * @param position The book's place in the catalog; search results are returned in this order
+     */
+    public void add(Book book, long position) {
+        String text = normalize(fieldExtractor.apply(book));
+        indexedText.computeIfAbsent(book, b -> {
+            // Each posting is changed inside compute so a concurrent removal cannot drop it while it is filled
+            for (String gram : grams(text)) {
+                postings.compute(gram, (g, posting) -> {
+                    Set<Book> updated = posting != null ? posting : ConcurrentHashMap.newKeySet();
+                    updated.add(b);
+                    return updated;
+                });
+            }
+            return new Indexed(b, text, position);
+        });
+    }
+
+    /**
+     * Removes a book from the index
+     * @param book The book to remove
+     */
+    public void remove(Book book) {
+        indexedText.computeIfPresent(book, (b, indexed) -> {
+            for (String gram : grams(indexed.text)) {
+                postings.computeIfPresent(gram, (g, posting) -> {
+                    posting.remove(b);
+                    return posting.isEmpty() ? null : posting;
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds all books whose field contains the query (case-insensitive, partial match)
+     * @param query The text to search for
+     * @return Matching books in the order they were added to the index
+     */
+    public List<Book> search(String query) {
+        String searchTerm = normalize(query);
+        List<Indexed> matches = new ArrayList<>();
+
+        // Queries shorter than a gram cannot be answered from the postings
+        if (searchTerm.length() < GRAM_LENGTH) {
+            for (Indexed indexed : indexedText.values()) {
+                if (indexed.text.contains(searchTerm)) {
+                    matches.add(indexed);
+                }
+            }
+            return inCatalogOrder(matches);
+        }
+
+        // Every gram of the query must be present, so walk the shortest posting list only
+        Set<Book> candidates = null;
+        for (String gram : grams(searchTerm)) {
+            Set<Book> posting = postings.get(gram);
+            if (posting == null) {
+                return new ArrayList<>();
+            }
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+
+        for (Book book : candidates) {
+            Indexed indexed = indexedText.get(book);
+            // The book may have been removed since the posting was read
+            if (indexed != null && indexed.text.contains(searchTerm)) {
+                matches.add(indexed);
+            }
+        }
+        return inCatalogOrder(matches);
+    }
+
+    /**
+     * Sorts matches into the order their books were added to the index
+     */
+    private static List<Book> inCatalogOrder(List<Indexed> matches) {
+        matches.sort(Comparator.comparingLong(indexed -> indexed.position));
+        List<Book> results = new ArrayList<>(matches.size());
+        for (Indexed indexed : matches) {
+            results.add(indexed.book);
+        }
+        return results;
+    }
+
+    /**
+     * Lower-cases a field value for case-insensitive matching
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    /**
+     * Splits text into its distinct overlapping grams
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * The indexed form of one book's field
+     */
+    private static class Indexed {
+        private final Book book;
+        private final String text;
+        private final long position;
+
+        Indexed(Book book, String text, long position) {
+            this.book = book;
+            this.text = text;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * ZipfianGenerator draws ranks 1..n where rank k is picked with probability proportional to
+ * 1 / k^exponent, the popularity skew seen in circulation data (a few titles and readers
+ * account for most of the activity).
+ *
+ * Sampling uses rejection-inversion (Hörmann and Derflinger), which needs constant memory and
+ * time per sample regardless of n. The generator holds no mutable state, so one instance can be
+ * shared by threads that each bring their own random source.
+ */
+public class ZipfianGenerator {
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    /**
+     * Creates a generator over ranks 1..n
+     * @param n Number of ranks (at least 1)
+     * @param exponent Skew of the distribution (greater than 0; 1.0 is classic Zipf)
+     */
+    public ZipfianGenerator(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipfian range must contain at least one rank: " + n);
+        }
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("Zipfian exponent must be positive: " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    /**
+     * Draws the next rank
+     * @param random Random source of the calling thread
+     * @return A rank between 1 (most popular) and n
+     */
+    public int next(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, accurate near 0
+     */
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, accurate near 0
+     */
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
@@ -0,0 +1,321 @@
+import benchmarks.Workload;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * LibraryWorkload generates a synthetic library of a given size in a temporary database and
+ * exposes the operations measured by the benchmarks (see {@link Workload}).
+ *
+ * The data is generated from a fixed seed: books with a few hundred distinct authors and a
+ * dozen categories, ratings on most books, one student per hundred books and an active loan
+ * on one book in twenty.
+ */
+public class LibraryWorkload implements Workload {
+    private static final int SAMPLE_COUNT = 1024; // Power of two so benchmarks can mask the index
+
+    private static final String[] ADJECTIVES = {
+        "Silent", "Hidden", "Broken", "Golden", "Distant", "Forgotten", "Crimson", "Endless",
+        "Quiet", "Burning", "Frozen", "Lost", "Secret", "Ancient", "Modern", "Wild",
+        "Hollow", "Bright", "Dark", "Restless"
+    };
+
+    private static final String[] NOUNS = {
+        "River", "Garden", "Empire", "Algorithm", "Ocean", "Machine", "Kingdom", "Letter",
+        "Mountain", "Network", "Harbor", "Theory", "Journey", "Signal", "Library", "Planet",
+        "Compiler", "Winter", "Circuit", "Memory", "Forest", "Protocol", "Island", "Archive"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Maria", "Wei", "Aisha", "Carlos", "Yuki", "Olga", "Ravi", "Emma", "Kofi",
+        "Lena", "Omar", "Sofia", "Arjun", "Nina", "Hiro", "Grace", "Mateo", "Priya", "Jonas"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Garcia", "Chen", "Khan", "Silva", "Tanaka", "Ivanova", "Patel", "Brown", "Mensah",
+        "Fischer", "Haddad", "Rossi", "Sharma", "Novak", "Sato", "Okafor", "Lopez", "Nair", "Berg"
+    };
+
+    private static final String[] CATEGORIES = {
+        "Fiction", "Non-Fiction", "Science", "Technology", "History", "Biography",
+        "Mystery", "Romance", "Fantasy", "Philosophy", "Poetry", "Business"
+    };
+
+    private static final String[] ACTIVITIES = {
+        GamificationSystem.ACHIEVEMENT_BORROW, GamificationSystem.ACHIEVEMENT_RETURN, GamificationSystem.ACHIEVEMENT_REVIEW
+    };
+
+    private final int catalogSize;
+    private final Path directory;
+    private final Library library;
+    private final RecommendationEngine recommendationEngine;
+    private final String[] isbnSamples;
+    private final String[] titleSamples;
+    private final String[] authorSamples;
+    private final String[] categorySamples;
+    private final int[] studentIdSamples;
+    private final String[] studentUidSamples;
+
+    /**
+     * Generates the library
+     * @param catalogSize Number of books
+     * @param seed Seed of the data generator
+     * @throws IOException if the temporary database cannot be created
+     * @throws SQLException if the generated data cannot be written
+     */
+    public LibraryWorkload(int catalogSize, long seed) throws IOException, SQLException {
+        this.catalogSize = catalogSize;
+        this.directory = Files.createTempDirectory("library-bench-");
+        StorageConfig storageConfig = new StorageConfig(directory.resolve("library.db").toString());
+
+        // Seed the database first; the library then loads the catalog with its ratings and loans like any other
+        Random random = new Random(seed + 1);
+        int studentCount = Math.max(50, catalogSize / 100);
+        DatabaseManager seeder = new DatabaseManager(storageConfig);
+        try {
+            BookImportResult result = seeder.importBooks(generateBooks(catalogSize, new Random(seed)),
+                DatabaseManager.DEFAULT_IMPORT_BATCH_SIZE);
+            if (!result.isCompleted() || result.getInsertedCount() != catalogSize) {
+                throw new IllegalStateException("Synthetic catalog was not fully imported: " + result);
+            }
+
+            try (Connection connection = seeder.getConnectionPool().getWriteConnection()) {
+                connection.setAutoCommit(false);
+                insertStudents(connection, studentCount);
+                rateBooks(connection, random);
+                lendBooks(connection, random, studentCount);
+                connection.commit();
+            }
+        } finally {
+            seeder.closeConnection();
+        }
+
+        this.library = new Library(storageConfig);
+        DatabaseManager dbManager = library.getDBManager();
+
+        this.recommendationEngine = new RecommendationEngine(dbManager);
+        this.isbnSamples = new String[SAMPLE_COUNT];
+        this.titleSamples = new String[SAMPLE_COUNT];
+        this.authorSamples = new String[SAMPLE_COUNT];
+        this.categorySamples = new String[SAMPLE_COUNT];
+        this.studentIdSamples = new int[SAMPLE_COUNT];
+        this.studentUidSamples = new String[SAMPLE_COUNT];
+
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            // Half of the lookups hit an existing ISBN, half miss
+            isbnSamples[i] = i % 2 == 0 ? isbn(random.nextInt(catalogSize)) : "978" + String.format("%010d", i);
+            titleSamples[i] = i % 2 == 0 ? NOUNS[random.nextInt(NOUNS.length)].toLowerCase()
+                : ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+            authorSamples[i] = i % 2 == 0 ? LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                : FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            categorySamples[i] = CATEGORIES[random.nextInt(CATEGORIES.length)].substring(0, 4);
+
+            int student = random.nextInt(studentCount);
+            studentIdSamples[i] = student + 1;
+            studentUidSamples[i] = studentUid(student);
+
+            // Half of the sampled students have an interest profile, the rest get top rated books
+            if (i % 2 == 0) {
+                for (int j = 0; j < 3; j++) {
+                    Book borrowed = library.findBook(isbn(random.nextInt(catalogSize)));
+                    recommendationEngine.updateInterestFromBorrowing(studentUidSamples[i], borrowed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int catalogSize() {
+        return catalogSize;
+    }
+
+    @Override
+    public int sampleCount() {
+        return SAMPLE_COUNT;
+    }
+
+    @Override
+    public Object findBook(int i) {
+        return library.findBook(isbnSamples[i]);
+    }
+
+    @Override
+    public List<?> searchByTitle(int i) {
+        return library.searchByTitle(titleSamples[i]);
+    }
+
+    @Override
+    public List<?> searchByAuthor(int i) {
+        return library.searchByAuthor(authorSamples[i]);
+    }
+
+    @Override
+    public List<?> searchByCategory(int i) {
+        return library.searchByCategory(categorySamples[i]);
+    }
+
+    @Override
+    public List<?> getTopRatedBooks(int limit) {
+        return library.getTopRatedBooks(limit);
+    }
+
+    @Override
+    public List<?> loadAllBooks() {
+        return library.getDBManager().getAllBooks();
+    }
+
+    @Override
+    public List<?> trackActivity(int i) {
+        return library.getDBManager().getGamificationSystem()
+            .trackActivity(studentIdSamples[i], ACTIVITIES[i % ACTIVITIES.length]);
+    }
+
+    @Override
+    public List<?> getRecommendedBooks(int i, int limit) {
+        return recommendationEngine.getRecommendedBooks(studentUidSamples[i], limit);
+    }
+
+    @Override
+    public void close() {
+        library.close();
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    /**
+     * Streams generated books so large catalogs are never held twice in memory
+     */
+    private static Iterator<Book> generateBooks(int count, Random random) {
+        return new Iterator<Book>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Book next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+                if (random.nextInt(3) == 0) {
+                    title += " of the " + NOUNS[random.nextInt(NOUNS.length)];
+                }
+                String author = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                return new Book(title, author, isbn(next++), 1900 + random.nextInt(125), category);
+            }
+        };
+    }
+
+    private void insertStudents(Connection connection, int studentCount) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO students (uid, first_name, last_name, department, enrollment_year) VALUES (?, ?, ?, ?, ?)"
+        );
+        for (int i = 0; i < studentCount; i++) {
+            statement.setString(1, studentUid(i));
+            statement.setString(2, firstName(i));
+            statement.setString(3, lastName(i));
+            statement.setString(4, "Computer Science");
+            statement.setString(5, "2022");
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        statement.close();
+    }
+
+    /**
+     * Gives about 60% of the books between 1 and 50 ratings
+     */
+    private void rateBooks(Connection connection, Random random) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+            "UPDATE books SET total_rating = ?, rating_count = ? WHERE isbn = ?"
+        );
+        for (int i = 0; i < catalogSize; i++) {
+            if (random.nextInt(10) >= 6) {
+                continue;
+            }
+            int ratingCount = 1 + random.nextInt(50);
+            double totalRating = ratingCount * (1.0 + random.nextInt(41) / 10.0);
+            statement.setDouble(1, totalRating);
+            statement.setInt(2, ratingCount);
+            statement.setString(3, isbn(i));
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        statement.close();
+    }
+
+    /**
+     * Lends one book in twenty to a random student
+     */
+    private void lendBooks(Connection connection, Random random, int studentCount) throws SQLException {
+        PreparedStatement updateBook = connection.prepareStatement(
+            "UPDATE books SET is_available = 0, borrower_name = ?, borrower_uid = ?, due_date = ? WHERE isbn = ?"
+        );
+        PreparedStatement insertLoan = connection.prepareStatement(
+            "INSERT INTO borrowing_history (book_id, student_id, borrow_date, due_date, is_returned) " +
+            "SELECT id, ?, ?, ?, 0 FROM books WHERE isbn = ?"
+        );
+        LocalDate today = LocalDate.now();
+
+        for (int i = 0; i < catalogSize; i += 20) {
+            int student = random.nextInt(studentCount);
+            LocalDate borrowDate = today.minusDays(random.nextInt(30));
+            String isbn = isbn(i);
+
+            updateBook.setString(1, studentName(student));
+            updateBook.setString(2, studentUid(student));
+            updateBook.setString(3, borrowDate.plusDays(14).toString());
+            updateBook.setString(4, isbn);
+            updateBook.addBatch();
+
+            insertLoan.setInt(1, student + 1);
+            insertLoan.setString(2, borrowDate.toString());
+            insertLoan.setString(3, borrowDate.plusDays(14).toString());
+            insertLoan.setString(4, isbn);
+            insertLoan.addBatch();
+        }
+        updateBook.executeBatch();
+        insertLoan.executeBatch();
+        updateBook.close();
+        insertLoan.close();
+    }
+
+    private static String isbn(int index) {
+        return "979" + String.format("%010d", index);
+    }
+
+    private static String studentUid(int index) {
+        return String.format("22BCS%05d", index);
+    }
+
+    private static String firstName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length];
+    }
+
+    private static String lastName(int index) {
+        return LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    private static String studentName(int index) {
+        return firstName(index) + " " + lastName(index);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In-memory catalog operations of {@code Library}: ISBN lookup, substring searches and top rated books.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogBenchmark {
+
+    @Benchmark
+    public Object findBook(LibraryState state, SampleCursor cursor) {
+        return state.workload.findBook(cursor.next(state));
+    }
+
+    @Benchmark
+    public List<?> searchByTitle(LibraryState state, SampleCursor cursor) {
+        return state.workload.searchByTitle(cursor.next(state));
+    }
+
+    @Benchmark
+    public List<?> searchByAuthor(LibraryState state, SampleCursor cursor) {
+        return state.workload.searchByAuthor(cursor.next(state));
+    }
+
+    @Benchmark
+    public List<?> searchByCategory(LibraryState state, SampleCursor cursor) {
+        return state.workload.searchByCategory(cursor.next(state));
+    }
+
+    @Benchmark
+    public List<?> getTopRatedBooks(LibraryState state) {
+        return state.workload.getTopRatedBooks(10);
+    }
+}
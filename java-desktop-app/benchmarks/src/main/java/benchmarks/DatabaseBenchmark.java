@@ -0,0 +1,39 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Database-backed operations: loading the catalog, recording gamification activity and
+ * interest-based recommendations (which rescan the catalog on every call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DatabaseBenchmark {
+
+    @Benchmark
+    public List<?> getAllBooks(LibraryState state) {
+        return state.workload.loadAllBooks();
+    }
+
+    @Benchmark
+    public List<?> trackActivity(LibraryState state, SampleCursor cursor) {
+        return state.workload.trackActivity(cursor.next(state));
+    }
+
+    @Benchmark
+    public List<?> getRecommendedBooks(LibraryState state, SampleCursor cursor) {
+        return state.workload.getRecommendedBooks(cursor.next(state), 5);
+    }
+}
@@ -0,0 +1,31 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A generated library shared by all benchmark threads, rebuilt for every catalog size.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+    private static final long SEED = 20240501L;
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    public Workload workload;
+
+    @Setup(Level.Trial)
+    public void open() {
+        workload = Workloads.open(catalogSize, SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        workload.close();
+    }
+}
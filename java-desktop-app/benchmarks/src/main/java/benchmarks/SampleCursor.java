@@ -0,0 +1,22 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Walks through the prepared sample keys so consecutive calls do not repeat the same lookup.
+ */
+@State(Scope.Thread)
+public class SampleCursor {
+    private int position;
+
+    /**
+     * Gets the next sample index
+     * @param state The library whose samples are used
+     * @return An index below the workload's sample count
+     */
+    public int next(LibraryState state) {
+        position = (position + 1) & (state.workload.sampleCount() - 1);
+        return position;
+    }
+}
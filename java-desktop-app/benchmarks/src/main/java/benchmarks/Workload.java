@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.List;
+
+/**
+ * The operations the benchmarks measure, implemented by {@code LibraryWorkload}.
+ *
+ * The application classes live in the default package, which JMH does not accept for benchmark
+ * classes and which code in a named package cannot import. The benchmarks therefore call the
+ * application through this interface; {@link Workloads} creates the default-package
+ * implementation once per trial, so the measured calls are plain interface calls.
+ */
+public interface Workload extends AutoCloseable {
+
+    /** Number of books in the generated catalog */
+    int catalogSize();
+
+    /** Number of sample keys and queries prepared for each operation */
+    int sampleCount();
+
+    /** Looks up the {@code i}-th sample ISBN (half of them hit, half miss) */
+    Object findBook(int i);
+
+    List<?> searchByTitle(int i);
+
+    List<?> searchByAuthor(int i);
+
+    List<?> searchByCategory(int i);
+
+    List<?> getTopRatedBooks(int limit);
+
+    /** Loads the whole catalog with its active loans from the database */
+    List<?> loadAllBooks();
+
+    /** Records an activity for the {@code i}-th sample student */
+    List<?> trackActivity(int i);
+
+    /** Recommends books for the {@code i}-th sample student */
+    List<?> getRecommendedBooks(int i, int limit);
+
+    @Override
+    void close();
+}
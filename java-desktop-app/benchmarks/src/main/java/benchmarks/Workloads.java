@@ -0,0 +1,27 @@
+package benchmarks;
+
+/**
+ * Creates the default-package {@code LibraryWorkload} for the benchmarks (see {@link Workload}).
+ */
+public final class Workloads {
+    private static final String IMPLEMENTATION = "LibraryWorkload";
+
+    private Workloads() {
+    }
+
+    /**
+     * Generates a synthetic library of the given size in a temporary database
+     * @param catalogSize Number of books
+     * @param seed Seed of the data generator, so every run measures the same data
+     * @return The workload, to be closed when the trial ends
+     */
+    public static Workload open(int catalogSize, long seed) {
+        try {
+            return (Workload) Class.forName(IMPLEMENTATION)
+                .getConstructor(int.class, long.class)
+                .newInstance(catalogSize, seed);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + IMPLEMENTATION, e);
+        }
+    }
+}
@@ -5,7 +5,7 @@ echo Checking Java installation...
 java -version >nul 2>&1
 if %errorlevel% neq 0 (
     echo ERROR: Java is not installed or not in PATH
-    echo Please install Java 8 or higher and try again
+    echo Please install Java 17 or higher and try again
     echo.
     pause
     exit /b 1
@@ -0,0 +1,140 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for ConnectionPool against a scratch database. The pool has a single reader, so every
+ * reader lease gets the same physical connection back.
+ */
+class ConnectionPoolTest {
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void openPool() throws SQLException {
+        StorageConfig config = new StorageConfig(tempDir.resolve("pool.db").toString());
+        config.setReaderCount(1);
+        pool = new ConnectionPool(config);
+
+        try (Connection writer = pool.getWriteConnection()) {
+            Statement stmt = writer.createStatement();
+            stmt.execute("CREATE TABLE pool_check (id INTEGER PRIMARY KEY, value INTEGER)");
+            stmt.execute("INSERT INTO pool_check (id, value) VALUES (1, 1), (2, 1)");
+            stmt.close();
+        }
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    void readerSeesCommitsAfterLeakedStatements() throws SQLException {
+        // Leave a cached statement and a plain statement mid-step on the reader
+        try (Connection reader = pool.getConnection()) {
+            PreparedStatement leaked = reader.prepareStatement("SELECT value FROM pool_check ORDER BY id");
+            leaked.executeQuery().next();
+            reader.createStatement().executeQuery("SELECT value FROM pool_check ORDER BY id").next();
+        }
+
+        try (Connection writer = pool.getWriteConnection()) {
+            Statement stmt = writer.createStatement();
+            stmt.executeUpdate("UPDATE pool_check SET value = 2");
+            stmt.close();
+        }
+
+        assertEquals(2, readValue(1));
+    }
+
+    @Test
+    void nestedLeasesShareTheConnection() throws SQLException {
+        try (Connection outer = pool.getConnection()) {
+            try (Connection inner = pool.getConnection()) {
+                assertSame(outer, inner);
+            }
+
+            // Still leased by the outer handle
+            PreparedStatement stmt = outer.prepareStatement("SELECT COUNT(*) FROM pool_check");
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+            rs.close();
+            stmt.close();
+        }
+    }
+
+    @Test
+    void writerThreadReadsItsOwnChanges() throws SQLException {
+        try (Connection writer = pool.getWriteConnection()) {
+            writer.setAutoCommit(false);
+            Statement stmt = writer.createStatement();
+            stmt.executeUpdate("UPDATE pool_check SET value = 3 WHERE id = 1");
+            stmt.close();
+
+            try (Connection reader = pool.getConnection()) {
+                assertSame(writer, reader);
+            }
+            assertEquals(3, readValue(1));
+            writer.commit();
+        }
+    }
+
+    @Test
+    void releaseRollsBackUnfinishedTransaction() throws SQLException {
+        try (Connection writer = pool.getWriteConnection()) {
+            writer.setAutoCommit(false);
+            Statement stmt = writer.createStatement();
+            stmt.executeUpdate("UPDATE pool_check SET value = 4 WHERE id = 1");
+            stmt.close();
+        }
+
+        assertEquals(1, readValue(1));
+        try (Connection writer = pool.getWriteConnection()) {
+            assertTrue(writer.getAutoCommit());
+        }
+    }
+
+    @Test
+    void readerRefusesWrites() {
+        assertThrows(SQLException.class, () -> {
+            try (Connection reader = pool.getConnection()) {
+                Statement stmt = reader.createStatement();
+                stmt.executeUpdate("UPDATE pool_check SET value = 5");
+            }
+        });
+    }
+
+    @Test
+    void closedPoolRefusesLeases() {
+        pool.close();
+
+        assertThrows(SQLException.class, () -> pool.getConnection());
+        assertThrows(SQLException.class, () -> pool.getWriteConnection());
+    }
+
+    private int readValue(int id) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT value FROM pool_check WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+}
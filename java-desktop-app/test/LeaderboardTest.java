@@ -0,0 +1,136 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for Leaderboard: ranks and top N after updates and removals, checked against a plain sort
+ */
+class LeaderboardTest {
+
+    @Test
+    void ranksByPointsThenStudentId() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(3, "Carol", "S3", 50, 2);
+        leaderboard.update(1, "Alice", "S1", 50, 2);
+        leaderboard.update(2, "Bob", "S2", 80, 3);
+        leaderboard.update(4, "Dave", "S4", 10, 1);
+
+        assertEquals(List.of(2, 1, 3, 4), studentIds(leaderboard.top(10)));
+        assertEquals(1, leaderboard.getRank(2));
+        assertEquals(2, leaderboard.getRank(1));
+        assertEquals(3, leaderboard.getRank(3));
+        assertEquals(4, leaderboard.getRank(4));
+
+        LeaderboardEntry entry = leaderboard.getEntry(3);
+        assertEquals(new LeaderboardEntry(3, 3, "Carol", "S3", 50, 2), entry);
+    }
+
+    @Test
+    void updateMovesStudent() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(1, "Alice", "S1", 10, 1);
+        leaderboard.update(2, "Bob", "S2", 20, 1);
+        leaderboard.update(3, "Carol", "S3", 30, 1);
+
+        assertTrue(leaderboard.updatePoints(1, 40, 2));
+        assertEquals(List.of(1, 3, 2), studentIds(leaderboard.top(10)));
+        assertEquals(1, leaderboard.getRank(1));
+        assertEquals("Alice", leaderboard.getEntry(1).studentName());
+
+        // Dropping to a tie puts the lower student ID first
+        assertTrue(leaderboard.updatePoints(1, 20, 1));
+        assertEquals(List.of(3, 1, 2), studentIds(leaderboard.top(10)));
+        assertEquals(3, leaderboard.size());
+
+        assertFalse(leaderboard.updatePoints(9, 100, 5));
+        assertFalse(leaderboard.contains(9));
+    }
+
+    @Test
+    void removeClosesTheGap() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int id = 1; id <= 5; id++) {
+            leaderboard.update(id, "Student " + id, "S" + id, id * 10, 1);
+        }
+
+        leaderboard.remove(4);
+        leaderboard.remove(42);
+
+        assertEquals(List.of(5, 3, 2, 1), studentIds(leaderboard.top(10)));
+        assertEquals(-1, leaderboard.getRank(4));
+        assertNull(leaderboard.getEntry(4));
+        assertEquals(2, leaderboard.getRank(3));
+        assertEquals(4, leaderboard.size());
+
+        leaderboard.clear();
+        assertEquals(0, leaderboard.size());
+        assertTrue(leaderboard.top(10).isEmpty());
+    }
+
+    @Test
+    void topStopsAtLimit() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int id = 1; id <= 20; id++) {
+            leaderboard.update(id, "Student " + id, "S" + id, id, 1);
+        }
+
+        List<LeaderboardEntry> top = leaderboard.top(3);
+        assertEquals(List.of(20, 19, 18), studentIds(top));
+        assertEquals(List.of(1, 2, 3), List.of(top.get(0).rank(), top.get(1).rank(), top.get(2).rank()));
+        assertTrue(leaderboard.top(0).isEmpty());
+    }
+
+    @Test
+    void matchesSortAfterRandomUpdatesAndRemovals() {
+        Random random = new Random(42);
+        Leaderboard leaderboard = new Leaderboard();
+        Map<Integer, Integer> points = new HashMap<>();
+
+        for (int step = 0; step < 2000; step++) {
+            int studentId = random.nextInt(200);
+            if (random.nextInt(5) == 0) {
+                leaderboard.remove(studentId);
+                points.remove(studentId);
+            } else {
+                // Few distinct totals, so many ties
+                int total = random.nextInt(50);
+                leaderboard.update(studentId, "Student " + studentId, "S" + studentId, total, 1);
+                points.put(studentId, total);
+            }
+
+            if (step % 100 == 99) {
+                assertMatches(points, leaderboard);
+            }
+        }
+    }
+
+    private static void assertMatches(Map<Integer, Integer> points, Leaderboard leaderboard) {
+        List<Integer> expected = new ArrayList<>(points.keySet());
+        expected.sort(Comparator.<Integer>comparingInt(id -> -points.get(id)).thenComparingInt(id -> id));
+
+        assertEquals(expected.size(), leaderboard.size());
+        assertEquals(expected, studentIds(leaderboard.top(expected.size())));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, leaderboard.getRank(expected.get(i)));
+            assertEquals((int) points.get(expected.get(i)), leaderboard.getEntry(expected.get(i)).points());
+        }
+    }
+
+    private static List<Integer> studentIds(List<LeaderboardEntry> entries) {
+        List<Integer> ids = new ArrayList<>();
+        for (LeaderboardEntry entry : entries) {
+            ids.add(entry.studentId());
+        }
+        return ids;
+    }
+}
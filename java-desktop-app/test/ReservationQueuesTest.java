@@ -0,0 +1,172 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for ReservationQueues, in memory and loaded from a scratch reservations table
+ */
+class ReservationQueuesTest {
+    private static final int BOOK = 7;
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+    private ReservationQueues queues;
+
+    @BeforeEach
+    void openPool() throws SQLException {
+        pool = new ConnectionPool(new StorageConfig(tempDir.resolve("queues.db").toString()));
+        queues = new ReservationQueues();
+
+        try (Connection writer = pool.getWriteConnection()) {
+            Statement stmt = writer.createStatement();
+            stmt.execute(
+                "CREATE TABLE reservations (id INTEGER PRIMARY KEY, book_id INTEGER, student_id INTEGER, " +
+                "status TEXT, queue_position INTEGER)"
+            );
+            stmt.close();
+        }
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    void ticketsOrderTheQueue() {
+        assertEquals(1, queues.nextTicket(BOOK));
+        queues.enqueue(10, BOOK, 100, queues.nextTicket(BOOK));
+        queues.enqueue(11, BOOK, 101, queues.nextTicket(BOOK));
+        queues.enqueue(12, BOOK, 102, queues.nextTicket(BOOK));
+
+        assertArrayEquals(new int[] { 10, 100 }, queues.peek(BOOK));
+        assertEquals(1, queues.position(10));
+        assertEquals(3, queues.position(12));
+        assertEquals(4, queues.nextTicket(BOOK));
+
+        // Serving the head moves everyone up without new tickets
+        assertTrue(queues.remove(10));
+        assertArrayEquals(new int[] { 11, 101 }, queues.peek(BOOK));
+        assertEquals(2, queues.position(12));
+        assertEquals(4, queues.nextTicket(BOOK));
+
+        // Cancelling from the middle
+        assertTrue(queues.remove(11));
+        assertFalse(queues.remove(11));
+        assertEquals(1, queues.position(12));
+        assertEquals(0, queues.position(11));
+        assertEquals(1, queues.size(BOOK));
+
+        assertTrue(queues.remove(12));
+        assertNull(queues.peek(BOOK));
+        assertEquals(0, queues.size(BOOK));
+        assertEquals(1, queues.nextTicket(BOOK));
+    }
+
+    @Test
+    void loadOrdersByTicketThenReservationId() throws SQLException {
+        try (Connection writer = pool.getWriteConnection()) {
+            insert(writer, 1, BOOK, 100, "WAITING", 5);
+            insert(writer, 2, BOOK, 101, "WAITING", 2);
+            insert(writer, 3, BOOK, 102, "WAITING", 2);  // Equal tickets in old data
+            insert(writer, 4, BOOK, 103, "READY", 1);
+            insert(writer, 5, BOOK + 1, 104, "WAITING", 1);
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            queues.load(connection);
+        }
+
+        assertEquals(3, queues.size(BOOK));
+        assertArrayEquals(new int[] { 2, 101 }, queues.peek(BOOK));
+        assertEquals(2, queues.position(3));
+        assertEquals(3, queues.position(1));
+        assertEquals(0, queues.position(4));
+        assertEquals(6, queues.nextTicket(BOOK));
+        assertEquals(1, queues.size(BOOK + 1));
+    }
+
+    @Test
+    void reloadAfterRollbackRestoresServedHead() throws SQLException {
+        try (Connection writer = pool.getWriteConnection()) {
+            for (int i = 1; i <= 3; i++) {
+                long ticket = queues.nextTicket(BOOK);
+                insert(writer, i, BOOK, 100 + i, "WAITING", ticket);
+                queues.enqueue(i, BOOK, 100 + i, ticket);
+            }
+        }
+
+        // Serve the head inside a transaction that is then rolled back, as ReservationSystem does
+        try (Connection writer = pool.getWriteConnection()) {
+            writer.setAutoCommit(false);
+            try {
+                int[] head = queues.peek(BOOK);
+                PreparedStatement stmt = writer.prepareStatement("UPDATE reservations SET status = 'READY' WHERE id = ?");
+                stmt.setInt(1, head[0]);
+                stmt.executeUpdate();
+                stmt.close();
+                queues.remove(head[0]);
+                assertEquals(1, queues.position(2));
+
+                throw new SQLException("Simulated failure after serving the head");
+            } catch (SQLException e) {
+                writer.rollback();
+                queues.load(writer);
+            } finally {
+                writer.setAutoCommit(true);
+            }
+        }
+
+        assertArrayEquals(new int[] { 1, 101 }, queues.peek(BOOK));
+        assertEquals(1, queues.position(1));
+        assertEquals(2, queues.position(2));
+        assertEquals(3, queues.position(3));
+        assertEquals(4, queues.nextTicket(BOOK));
+
+        // A reservation made after the reload queues behind everyone
+        try (Connection writer = pool.getWriteConnection()) {
+            long ticket = queues.nextTicket(BOOK);
+            insert(writer, 4, BOOK, 104, "WAITING", ticket);
+            queues.enqueue(4, BOOK, 104, ticket);
+        }
+        assertEquals(4, queues.position(4));
+
+        // And a fresh load from the table agrees with the in-memory queue
+        ReservationQueues reloaded = new ReservationQueues();
+        try (Connection connection = pool.getConnection()) {
+            reloaded.load(connection);
+        }
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(queues.position(id), reloaded.position(id));
+        }
+    }
+
+    private static void insert(Connection connection, int id, int bookId, int studentId, String status, long ticket)
+            throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(
+            "INSERT INTO reservations (id, book_id, student_id, status, queue_position) VALUES (?, ?, ?, ?, ?)"
+        );
+        stmt.setInt(1, id);
+        stmt.setInt(2, bookId);
+        stmt.setInt(3, studentId);
+        stmt.setString(4, status);
+        stmt.setLong(5, ticket);
+        stmt.executeUpdate();
+        stmt.close();
+    }
+}